@@ -0,0 +1,377 @@
+/**
+ * This class represents a hash set that changes its layout at runtime, by its size and by the collisions it
+ * detects, transparently to its callers:
+ * array - up to 8 values are kept in a small array (with their hash codes) and searched by a linear scan,
+ * which is faster than hashing into a table for so few values;
+ * open addressing - from 9 values, the values and their hash codes are kept in a table of linear probing
+ * (with backward shift deletion, so there are no deleted cells), kept between 1/8 and 1/2 full;
+ * chained - if the searches of the table probe too many cells on average (many values with colliding hash
+ * codes, as in data1.txt), the values are moved to an OpenHashSet, whose buckets become balanced trees when
+ * they grow, so a search is O(log n) even when all the hash codes collide.
+ * The table counts the cells probed by its searches (additions, searches and deletions), and decides once
+ * there were as many searches as the elements divided by 8 (and at least 1024): a layout change costs O(n),
+ * and the searches before it probed at least 8 cells each, so the change is amortized over them. Once the set
+ * shrinks to 4 values (in any layout) it goes back to the array.
+ * @author eden horka
+ */
+
+import java.util.function.Consumer;
+
+public class AdaptiveHashSet implements SimpleSet {
+
+    /**
+     * The layouts of the set.
+     */
+    public enum Layout {
+        /** A small array, searched by a linear scan. */
+        ARRAY,
+        /** A table of linear probing. */
+        OPEN_ADDRESSING,
+        /** An OpenHashSet (chains that become trees). */
+        CHAINED
+    }
+
+    /* The capacity of the array layout. */
+    private static final int ARRAY_CAPACITY = 8 ;
+
+    /* The minimal capacity of the table of the open addressing layout. */
+    private static final int MIN_TABLE_CAPACITY = 16 ;
+
+    /* The average number of probed cells per search above which the table moves to the chained layout. */
+    private static final int MAX_AVERAGE_PROBES = 8 ;
+
+    /* The minimal number of searches of the table before the average is checked. */
+    private static final int MIN_WINDOW = 1024 ;
+
+    /* The hash function of the set. */
+    private final HashFunction hashFunction ;
+
+    /* The current layout of the set. */
+    private Layout layout = Layout.ARRAY ;
+
+    /* The values of the array layout (the first numOfElements cells), or the table of the open addressing
+     * layout (null for an empty cell). null in the chained layout. */
+    private java.lang.String[] values = new java.lang.String[ARRAY_CAPACITY] ;
+
+    /* The hash codes of the values, by the indexes of the values. null in the chained layout. */
+    private int[] hashes = new int[ARRAY_CAPACITY] ;
+
+    /* The values of the chained layout (null in the other layouts). */
+    private OpenHashSet chainedSet ;
+
+    /* The number of elements of the set. */
+    private int numOfElements ;
+
+    /* The number of cells probed by the searches of the table since the last check. */
+    private long numOfProbes ;
+
+    /* The number of searches of the table since the last check. */
+    private int numOfSearches ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of an adaptive hash set.
+     * Builds a new, empty set in the array layout, that hashes the strings by their hashCode().
+     */
+    public AdaptiveHashSet() {
+        this(SimpleHashSet.DEFAULT_HASH_FUNCTION);
+    }
+
+    /**
+     * A constructor of an adaptive hash set.
+     * Builds a new, empty set in the array layout, with the specified hash function.
+     *
+     * @param hashFunction - The hash function of the set.
+     */
+    public AdaptiveHashSet(HashFunction hashFunction) {
+        this.hashFunction = ( hashFunction != null ) ? hashFunction : SimpleHashSet.DEFAULT_HASH_FUNCTION ;
+    }
+
+    /**
+     * A constructor of an adaptive hash set.
+     * Builds the set with the given elements (duplicate values should be ignored).
+     *
+     * @param data - Values to add to the set.
+     */
+    public AdaptiveHashSet(java.lang.String[] data) {
+        this();
+        for ( java.lang.String value: data ) {
+            add(value);
+        }
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False iff newValue already exists in the set
+     */
+    public boolean add(java.lang.String newValue) {
+        if ( newValue == null ) {
+            return false ;
+        }
+        if ( layout == Layout.CHAINED ) {
+            if ( ! chainedSet.add(newValue) ) {
+                return false ;
+            }
+            numOfElements++ ;
+            return true ;
+        }
+        int hash = hashFunction.hash(newValue) ;
+        if ( layout == Layout.ARRAY ) {
+            if ( arrayIndexOf(newValue, hash) != -1 ) {
+                return false ;
+            }
+            if ( numOfElements < ARRAY_CAPACITY ) {
+                values[numOfElements] = newValue ;
+                hashes[numOfElements] = hash ;
+                numOfElements++ ;
+                return true ;
+            }
+            toOpenAddressing(2 * MIN_TABLE_CAPACITY);
+        }
+        int index = findIndex(newValue, hash) ;
+        if ( index >= 0 ) {
+            checkProbes();
+            return false ;
+        }
+        values[-index - 1] = newValue ;
+        hashes[-index - 1] = hash ;
+        numOfElements++ ;
+        if ( numOfElements > values.length / 2 ) {
+            resizeTable(2 * values.length);
+        }
+        checkProbes();
+        return true ;
+    }
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True iff searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        if ( searchVal == null ) {
+            return false ;
+        }
+        switch ( layout ) {
+            case ARRAY:
+                return arrayIndexOf(searchVal, hashFunction.hash(searchVal)) != -1 ;
+            case OPEN_ADDRESSING:
+                boolean isFound = findIndex(searchVal, hashFunction.hash(searchVal)) >= 0 ;
+                checkProbes();
+                return isFound ;
+            default:
+                return chainedSet.contains(searchVal) ;
+        }
+    }
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True iff toDelete is found and deleted
+     */
+    public boolean delete(java.lang.String toDelete) {
+        if ( toDelete == null ) {
+            return false ;
+        }
+        switch ( layout ) {
+            case ARRAY:
+                int arrayIndex = arrayIndexOf(toDelete, hashFunction.hash(toDelete)) ;
+                if ( arrayIndex == -1 ) {
+                    return false ;
+                }
+                numOfElements-- ;
+                values[arrayIndex] = values[numOfElements] ;
+                hashes[arrayIndex] = hashes[numOfElements] ;
+                values[numOfElements] = null ;
+                return true ;
+            case OPEN_ADDRESSING:
+                int index = findIndex(toDelete, hashFunction.hash(toDelete)) ;
+                if ( index < 0 ) {
+                    checkProbes();
+                    return false ;
+                }
+                removeAt(index);
+                numOfElements-- ;
+                if ( numOfElements <= ARRAY_CAPACITY / 2 ) {
+                    toArray();
+                }
+                else if (( values.length > MIN_TABLE_CAPACITY ) && ( numOfElements < values.length / 8 )) {
+                    resizeTable(values.length / 2);
+                }
+                else {
+                    checkProbes();
+                }
+                return true ;
+            default:
+                if ( ! chainedSet.delete(toDelete) ) {
+                    return false ;
+                }
+                numOfElements-- ;
+                if ( numOfElements <= ARRAY_CAPACITY / 2 ) {
+                    toArray();
+                }
+                return true ;
+        }
+    }
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    public int size() {
+        return numOfElements ;
+    }
+
+    /**
+     * @return the current layout of the set.
+     */
+    public Layout layout() {
+        return layout ;
+    }
+
+    /**
+     * Performs the given action on every value of the set. The set must not be changed by the action.
+     * @param action - the action to perform on each value.
+     */
+    public void forEach(Consumer<? super java.lang.String> action) {
+        if ( layout == Layout.CHAINED ) {
+            chainedSet.forEach(action);
+            return ;
+        }
+        int end = ( layout == Layout.ARRAY ) ? numOfElements : values.length ;
+        for (int i = 0; i < end; i++) {
+            if ( values[i] != null ) {
+                action.accept(values[i]);
+            }
+        }
+    }
+
+    /* returns the index of the value in the array layout, or -1 if it isn't there. */
+    private int arrayIndexOf(java.lang.String value, int hash) {
+        for (int i = 0; i < numOfElements; i++) {
+            if (( hashes[i] == hash ) && values[i].equals(value) ) {
+                return i ;
+            }
+        }
+        return -1 ;
+    }
+
+    /* looks for the value in the table, and counts the probed cells. Returns the index of the value if it was
+     * found, else minus the index of the empty cell that ended the search minus 1. */
+    private int findIndex(java.lang.String value, int hash) {
+        int mask = values.length - 1 ;
+        int index = BaseHashSet.spread(hash) & mask ;
+        int probes = 1 ;
+        while ( values[index] != null ) {
+            if (( hashes[index] == hash ) && values[index].equals(value) ) {
+                break ;
+            }
+            index = ( index + 1 ) & mask ;
+            probes++ ;
+        }
+        numOfProbes += probes ;
+        numOfSearches++ ;
+        return ( values[index] != null ) ? index : -index - 1 ;
+    }
+
+    /* empties the given cell of the table, and shifts the rest of its cluster back over it. */
+    private void removeAt(int index) {
+        int mask = values.length - 1 ;
+        int hole = index ;
+        int next = ( index + 1 ) & mask ;
+        while ( values[next] != null ) {
+            // a value can move back to the hole if the hole is between its home cell and it
+            int home = BaseHashSet.spread(hashes[next]) & mask ;
+            if ((( next - home ) & mask ) >= (( next - hole ) & mask )) {
+                values[hole] = values[next] ;
+                hashes[hole] = hashes[next] ;
+                hole = next ;
+            }
+            next = ( next + 1 ) & mask ;
+        }
+        values[hole] = null ;
+    }
+
+    /* once there were enough searches since the last check, moves the table to the chained layout if they
+     * probed too many cells on average, and starts counting again. */
+    private void checkProbes() {
+        if ( numOfSearches < Math.max(MIN_WINDOW, numOfElements / MAX_AVERAGE_PROBES) ) {
+            return ;
+        }
+        if ( numOfProbes > (long) MAX_AVERAGE_PROBES * numOfSearches ) {
+            toChained();
+        }
+        numOfProbes = 0 ;
+        numOfSearches = 0 ;
+    }
+
+    /* moves the values of the array layout to a new table of the given capacity. */
+    private void toOpenAddressing(int capacity) {
+        java.lang.String[] oldValues = values ;
+        int[] oldHashes = hashes ;
+        values = new java.lang.String[capacity] ;
+        hashes = new int[capacity] ;
+        for (int i = 0; i < numOfElements; i++) {
+            place(oldValues[i], oldHashes[i]);
+        }
+        layout = Layout.OPEN_ADDRESSING ;
+        numOfProbes = 0 ;
+        numOfSearches = 0 ;
+    }
+
+    /* moves the values of the table to a new table of the given capacity. */
+    private void resizeTable(int capacity) {
+        java.lang.String[] oldValues = values ;
+        int[] oldHashes = hashes ;
+        values = new java.lang.String[capacity] ;
+        hashes = new int[capacity] ;
+        for (int i = 0; i < oldValues.length; i++) {
+            if ( oldValues[i] != null ) {
+                place(oldValues[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /* puts a value that is not in the table in the first empty cell of its probing sequence. */
+    private void place(java.lang.String value, int hash) {
+        int mask = values.length - 1 ;
+        int index = BaseHashSet.spread(hash) & mask ;
+        while ( values[index] != null ) {
+            index = ( index + 1 ) & mask ;
+        }
+        values[index] = value ;
+        hashes[index] = hash ;
+    }
+
+    /* moves the values of the table to an OpenHashSet, sized for all of them up front. */
+    private void toChained() {
+        java.lang.String[] all = new java.lang.String[numOfElements] ;
+        int[] count = new int[1] ;
+        forEach(value -> all[count[0]++] = value);
+        chainedSet = new OpenHashSet(BaseHashSet.DEFAULT_HIGHER_CAPACITY, BaseHashSet.DEFAULT_LOWER_CAPACITY,
+                hashFunction) ;
+        chainedSet.addAll(all);
+        values = null ;
+        hashes = null ;
+        layout = Layout.CHAINED ;
+    }
+
+    /* moves the values of the table or of the chained layout (at most ARRAY_CAPACITY) to a new array. */
+    private void toArray() {
+        java.lang.String[] newValues = new java.lang.String[ARRAY_CAPACITY] ;
+        int[] count = new int[1] ;
+        forEach(value -> newValues[count[0]++] = value);
+        values = newValues ;
+        hashes = new int[ARRAY_CAPACITY] ;
+        for (int i = 0; i < numOfElements; i++) {
+            hashes[i] = hashFunction.hash(values[i]) ;
+        }
+        chainedSet = null ;
+        layout = Layout.ARRAY ;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+/**
+ * This class represents a hash set of a closed hashing model (like ClosedHashSet), in which each cell contains
+ * at most one item.
+ * Unlike ClosedHashSet, the table does not keep a HashTableCell object per cell. It is kept in three flat
+ * arrays instead: the values of the cells, the cached hash codes of the values and the state of each cell
+ * (empty, occupied or deleted). A probe compares the cached hash code before calling equals(), and
+ * rehashing allocates only the three new arrays (no object per cell).
+ * @author eden horka
+ */
+
+public class ArrayClosedHashSet extends SimpleHashSet {
+
+    /*== The states of a cell: ==*/
+    /* A cell that was never used since the last rehash (a search can stop at it). */
+    private static final byte EMPTY = 0 ;
+
+    /* A cell that contains a value. */
+    private static final byte OCCUPIED = 1 ;
+
+    /* A cell whose value was deleted (a search must continue past it). */
+    private static final byte DELETED = 2 ;
+
+    /* The values of the cells. */
+    private java.lang.String[] values ;
+
+    /* The cached hash codes of the values of the cells. */
+    private int[] hashes ;
+
+    /* The states of the cells. */
+    private byte[] states ;
+
+    /* The current number of deleted cells in the table. */
+    private int numOfDeleted ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of an array closed hash set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor.
+     */
+    public ArrayClosedHashSet() {
+        reset();
+    }
+
+    /**
+     * A constructor of an array closed hash set.
+     * Builds a new, empty table with the specified load factors, and the default initial capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     */
+    public ArrayClosedHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+        reset();
+    }
+
+    /**
+     * A constructor of an array closed hash set.
+     * Builds a new, empty table with the specified load factors and hash function, and the default initial
+     * capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     */
+    public ArrayClosedHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction) {
+        super(upperLoadFactor, lowerLoadFactor, hashFunction);
+        reset();
+    }
+
+    /**
+     * A constructor of an array closed hash set.
+     * Builds the hash set with the given elements (duplicate values should be ignored).
+     * The table is allocated once, with a capacity that fits all the elements, and filled in a single pass.
+     * The new table has the default load factors.
+     *
+     * @param data - Values to add to the set.
+     */
+    public ArrayClosedHashSet(java.lang.String[] data) {
+        setInitialCapacity(data.length);
+        reset();
+        addAll(data);
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /* looks for the value along its probing sequence, and if it wasn't found, adds it to the first free cell
+     * on the way: either the first deleted cell, or the empty cell that ended the search. */
+    protected boolean insertIfAbsent(java.lang.String newValue, int hash) {
+        int firstDeleted = -1;
+        for (int i = 0; i < capacity; i++) {
+            int index = findIndex(hash, i);
+            byte state = states[index];
+            if ( state == EMPTY ) {
+                insert(firstDeleted == -1 ? index : firstDeleted, newValue, hash);
+                return true;
+            }
+            if ( state == DELETED ) {
+                if ( firstDeleted == -1 ) {
+                    firstDeleted = index;
+                }
+            }
+            else if (( hashes[index] == hash ) && values[index].equals(newValue)) {
+                return false;
+            }
+        }
+        if ( firstDeleted != -1 ) {
+            insert(firstDeleted, newValue, hash);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Look for a specified value in the set.
+     *
+     * @param searchVal - Value to search for
+     * @return True - if searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        return ( searchVal != null ) && ( findValue(searchVal, hash(searchVal)) != -1 ) ;
+    }
+
+    /* looks for the value along its probing sequence, and marks its cell as deleted if it was found. */
+    protected boolean removeIfPresent(java.lang.String toDelete, int hash) {
+        int index = findValue(toDelete, hash);
+        if ( index == -1 ) {
+            return false;
+        }
+        states[index] = DELETED;
+        values[index] = null;
+        numOfDeleted++;
+        return true;
+    }
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity.
+     * @param hashIndex -  the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int hashIndex) {
+        return hashIndex & ( capacity - 1 ) ;
+    }
+
+    /* calculates and returns the matching legal index in the hash set for the i'th probe. */
+    private int findIndex(int hash, int i) {
+        return clamp(hash + (i + i * i) / 2);
+    }
+
+    /* returns -1 if the value wasn't found, else returns its index in the hash set. */
+    private int findValue(java.lang.String searchVal, int hash) {
+        for (int i = 0; i < capacity; i++) {
+            int index = findIndex(hash, i);
+            byte state = states[index];
+            if ( state == EMPTY ) {
+                return -1;
+            }
+            if (( state == OCCUPIED ) && ( hashes[index] == hash ) && values[index].equals(searchVal)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /* puts a new value in the given (empty or deleted) cell. */
+    private void insert(int index, java.lang.String value, int hash) {
+        if ( states[index] == DELETED ) {
+            numOfDeleted--;
+        }
+        values[index] = value;
+        hashes[index] = hash;
+        states[index] = OCCUPIED;
+    }
+
+    /* Rehashes all the elements into new arrays of the current capacity (the deleted cells are dropped). */
+    private void reHash() {
+        java.lang.String[] oldValues = values;
+        int[] oldHashes = hashes;
+        byte[] oldStates = states;
+        reset();
+        for (int j = 0; j < oldStates.length; j++) {
+            if ( oldStates[j] == OCCUPIED ) {
+                int hash = oldHashes[j];
+                for (int i = 0; i < capacity; i++) {
+                    int index = findIndex(hash, i);
+                    if ( states[index] == EMPTY ) {
+                        values[index] = oldValues[j];
+                        hashes[index] = hash;
+                        states[index] = OCCUPIED;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /* allocates new empty arrays of the current capacity. */
+    private void reset() {
+        values = new java.lang.String[capacity];
+        hashes = new int[capacity];
+        states = new byte[capacity];
+        numOfDeleted = 0;
+    }
+
+    /* Changes the capacity of the hash set and rehashes all the elements. */
+    protected void resize(int newCapacity) {
+        capacity = newCapacity;
+        reHash();
+    }
+
+    /* Check if the current load factor exceeds the upper or the lower border
+     * and if it does, then rehashes the hash set. */
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
+            minimizeSet();
+        }
+    }
+
+    /* The deleted cells are counted as used cells, so that there are always empty cells to stop the searches.
+     * If the table is too full only because of them, it is rehashed with the same capacity. */
+    protected void reHashAfterAddition() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= upLoadFactor ) {
+            enlargeSet();
+        }
+        else if ( ((float) (numOfElements + numOfDeleted)) / capacity >= upLoadFactor ) {
+            reHash();
+        }
+    }
+
+    /* Minimize the capacity (size) of the hash set. */
+    private void minimizeSet() {
+        if ( capacity >= 2 ) {
+            resize(capacity / 2);
+        }
+    }
+
+    /* Enlarge the capacity (size) of the hash set. */
+    private void enlargeSet() {
+        resize(2 * capacity);
+    }
+}
\ No newline at end of file
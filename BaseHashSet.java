@@ -0,0 +1,242 @@
+/**
+ * An abstract class represents the table of a hash set, whatever the type of its elements: its capacity,
+ * number of elements, load factors and resize policy, and the decisions of when the table is enlarged or
+ * shrunk. The String sets (SimpleHashSet) and the generic sets (GenericHashSet) share this contract.
+ * @author eden horka
+ */
+
+public abstract class BaseHashSet {
+
+    /* The default lower load factor of the hash table. */
+    protected static final float DEFAULT_LOWER_CAPACITY = 0.25f ;
+    /* The default upper load factor of the hash table. */
+    protected static final float DEFAULT_HIGHER_CAPACITY = 0.75f ;
+    /* The default size of the hash table. */
+    protected static final int INITIAL_CAPACITY = 16 ;
+    /* The maximal size of the hash table (the largest power of 2 that is an int). */
+    protected static final int MAX_CAPACITY = 1 << 30 ;
+
+    /* The current number of elements in the hash table. */
+    protected int numOfElements ;
+    /* The size of the hash table. */
+    protected int capacity ;
+
+    /* The current load factor of the hash table. */
+    protected float loadFactor ;
+    /* The lower load factor of the hash table. */
+    protected float lowLoadFactor ;
+    /* The upper load factor of the hash table. */
+    protected float upLoadFactor ;
+
+    /* The policy that controls when the hash table is shrunk. */
+    protected ResizePolicy resizePolicy = ResizePolicy.DEFAULT ;
+
+    /* The number of deletions in a row that left the load factor below the lower load factor. */
+    private int numOfLowDeletions ;
+
+    /**
+     * A default constructor of a hash set table.
+     */
+    public BaseHashSet() {
+        this(DEFAULT_HIGHER_CAPACITY, DEFAULT_LOWER_CAPACITY);
+    }
+
+    /**
+     * Constructs a new hash set table with initial capacity.
+     * @param upperLoadFactor the upper load factor before rehashing
+     * @param lowerLoadFactor the lower load factor before rehashing
+     */
+    public BaseHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        numOfElements = 0 ;
+        capacity = INITIAL_CAPACITY ;
+        lowLoadFactor = lowerLoadFactor ;
+        upLoadFactor = upperLoadFactor ;
+    }
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    public int capacity() {
+        return capacity ;
+    }
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity.
+     * @param index -  the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected abstract int clamp(int index);
+
+    /**
+     * @return the current lower load factor of the hash set.
+     */
+    protected float getLowerLoadFactor(){
+        return lowLoadFactor ;
+    }
+
+    /**
+     * @return the current upper load factor of the hash set.
+     */
+    protected float getUpperLoadFactor(){
+        return upLoadFactor ;
+    }
+
+    /**
+     * Counts an element that was inserted to the table (by insertIfAbsent, or directly by a subclass), and
+     * rehashes the hash set if the load factor exceeds the upper load factor.
+     */
+    protected void elementAdded() {
+        numOfElements++ ;
+        numOfLowDeletions = 0 ;
+        reHashAfterAddition();
+    }
+
+    /**
+     * Uncounts an element that was removed from the table (by removeIfPresent, or directly by a subclass),
+     * and rehashes the hash set if the load factor is below the lower load factor.
+     */
+    protected void elementDeleted() {
+        numOfElements-- ;
+        reHashAfterDeletion();
+    }
+
+    /**
+     * Checks if the load factor after an addition exceeds the upper load factor, and if it does, then
+     * rehashes the hash set.
+     */
+    protected abstract void reHashAfterAddition();
+
+    /**
+     * Checks if the load factor after a deletion exceeds the lower load factor, and if it does, then
+     * rehashes the hash set.
+     */
+    protected abstract void reHashAfterDeletion();
+
+    /**
+     * Sets the policy that controls when the hash table is shrunk (minimum capacity, shrink delay and
+     * hysteresis).
+     * @param policy - the new resize policy (null for the default policy).
+     */
+    public void setResizePolicy(ResizePolicy policy) {
+        resizePolicy = ( policy == null ) ? ResizePolicy.DEFAULT : policy ;
+        numOfLowDeletions = 0 ;
+    }
+
+    /**
+     * @return the policy that controls when the hash table is shrunk.
+     */
+    public ResizePolicy getResizePolicy() {
+        return resizePolicy ;
+    }
+
+    /**
+     * Enlarges the table (if needed) so that the given number of elements can be added without rehashing.
+     * @param numOfValues - the number of elements the table should hold.
+     */
+    public void ensureCapacity(int numOfValues) {
+        int newCapacity = fittingCapacity(numOfValues);
+        if ( newCapacity > capacity ) {
+            resize(newCapacity);
+        }
+    }
+
+    /**
+     * Shrinks the table to the smallest capacity (allowed by the resize policy) that holds the current
+     * elements.
+     */
+    public void trimToSize() {
+        int newCapacity = fittingCapacity(numOfElements);
+        if ( newCapacity < capacity ) {
+            resize(newCapacity);
+        }
+    }
+
+    /**
+     * Sets the initial capacity of a table that was not allocated yet, so that the given number of elements
+     * can be added to it without rehashing (used by the constructors that get the values of the set).
+     * @param numOfValues - the number of elements the table should hold.
+     */
+    protected void setInitialCapacity(int numOfValues) {
+        capacity = Math.max(capacity, fittingCapacity(numOfValues));
+    }
+
+    /**
+     * Changes the capacity of the table and rehashes the elements into it.
+     * @param newCapacity - the new capacity of the table (a power of 2).
+     */
+    protected abstract void resize(int newCapacity);
+
+    /**
+     * Checks (after a deletion) if the table should be shrunk: the load factor is below the lower load
+     * factor, and the resize policy allows it (the shrink delay passed, the capacity after the shrink is not
+     * below the minimum capacity, and the load factor after the shrink is far enough from the upper load
+     * factor).
+     * @return true iff the table should be shrunk to half of its capacity.
+     */
+    protected boolean shouldShrink() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= lowLoadFactor ) {
+            numOfLowDeletions = 0 ;
+            return false ;
+        }
+        numOfLowDeletions++ ;
+        int newCapacity = capacity / 2 ;
+        if (( numOfLowDeletions <= resizePolicy.getShrinkDelay() )
+                || ( newCapacity < resizePolicy.getMinCapacity() )
+                || ( ((float) numOfElements) / newCapacity > upLoadFactor - resizePolicy.getHysteresis() )) {
+            return false ;
+        }
+        numOfLowDeletions = 0 ;
+        return true ;
+    }
+
+    /* updates the load factor after a bulk addition (that may have added fewer values than the table was
+     * enlarged for), and returns true iff any value was added. */
+    protected boolean finishAddAll(int oldNumOfElements) {
+        if ( numOfElements == oldNumOfElements ) {
+            return false ;
+        }
+        numOfLowDeletions = 0 ;
+        reHashAfterAddition();
+        return true ;
+    }
+
+    /* returns the smallest capacity (a power of 2, not below the minimum capacity of the resize policy) in
+     * which the given number of elements is below the upper load factor, minus the hysteresis. */
+    private int fittingCapacity(int numOfValues) {
+        int newCapacity = resizePolicy.getMinCapacity() ;
+        float maxLoadFactor = upLoadFactor - resizePolicy.getHysteresis() ;
+        while (( newCapacity < MAX_CAPACITY ) && ( ((float) numOfValues) / newCapacity >= maxLoadFactor )) {
+            newCapacity = 2 * newCapacity ;
+        }
+        return newCapacity ;
+    }
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    public int size() {
+        return numOfElements ;
+    }
+
+    /* returns true if a given index is valid, otherwise false. */
+    protected boolean isIndexValid(int index) {
+        return  (( index >= 0 ) && ( index < capacity )) ;
+    }
+
+    /* mixes the bits of a hash code (the finalizer of murmur3), so every bit of the result depends on all of
+     * its bits, and any bits taken from it (the index of a cell, a segment or a control byte) are well
+     * spread. Shared by every table that is indexed by bits of a hash code. */
+    static int spread(int hash) {
+        int h = ( hash ^ ( hash >>> 16 )) * 0x85EBCA6B ;
+        h = ( h ^ ( h >>> 13 )) * 0xC2B2AE35 ;
+        return h ^ ( h >>> 16 ) ;
+    }
+
+    /* mixes the bits of a long (the 64 bits finalizer of murmur3) into an int, like spread(int). */
+    static int spread(long value) {
+        long h = ( value ^ ( value >>> 33 )) * 0xFF51AFD7ED558CCDL ;
+        h = ( h ^ ( h >>> 33 )) * 0xC4CEB9FE1A85EC53L ;
+        return (int) ( h ^ ( h >>> 33 )) ;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+/**
+ * A sink for the results of benchmarked operations, so the JIT compiler can not drop an operation whose
+ * result is never used (in the spirit of the blackhole of JMH).
+ * The results are folded into a field that is published through a volatile write once a measurement ends.
+ * @author eden horka
+ */
+
+public class Blackhole {
+
+    /* The folded results of the consumed operations. */
+    private int sink ;
+
+    /* The published folded results (read by no one, but the compiler can't know it). */
+    private volatile int published ;
+
+    /**
+     * Consumes the result of an operation.
+     * @param result - the result to consume.
+     */
+    public void consume(boolean result) {
+        sink = ( sink * 31 ) + ( result ? 1 : 0 ) ;
+    }
+
+    /**
+     * Consumes the result of an operation.
+     * @param result - the result to consume.
+     */
+    public void consume(int result) {
+        sink = ( sink * 31 ) + result ;
+    }
+
+    /**
+     * Publishes the consumed results (called at the end of a measurement, outside of the timed code).
+     */
+    public void publish() {
+        published = sink ;
+    }
+}
\ No newline at end of file
@@ -1,65 +1,249 @@
 /**
- * a wrapper class of linked list of strings that contains delegation calls.
- * This class represents a cell in an open hash set.
+ * a class of a list of strings that represents a cell in an open hash set.
+ * Each value is kept in an entry together with its full hash code, so a search compares strings only when
+ * their hash codes match, and a rehash moves the values to their new buckets without hashing them again.
+ * When the bucket grows beyond TREEIFY_THRESHOLD values (for example, with many colliding strings), its
+ * entries are moved to a balanced search tree (ordered by hash code, and then by comparison of the strings),
+ * so the worst case search in the bucket is O(log n) instead of O(n). When it shrinks back below
+ * UNTREEIFY_THRESHOLD, it becomes a linked list again.
  * @author eden horka
  */
 
 import java.util.*;
+import java.util.function.Consumer;
 
 
-public class Bucket implements SimpleSet {
+public class Bucket {
 
-    public LinkedList<java.lang.String> bucket;
+    /* The number of values from which the bucket is kept as a tree. */
+    protected static final int TREEIFY_THRESHOLD = 8 ;
 
-    public Bucket(){
-        bucket = new LinkedList<java.lang.String>() ;
-    }
+    /* The number of values below which a tree bucket goes back to a linked list. */
+    protected static final int UNTREEIFY_THRESHOLD = 6 ;
+
+    /* The order of the entries of a tree bucket: by hash code, and then by comparison of the strings. */
+    private static final Comparator<Entry> ENTRY_ORDER = ( entry1, entry2 ) -> {
+        int order = Integer.compare(entry1.hash, entry2.hash) ;
+        return ( order != 0 ) ? order : entry1.value.compareTo(entry2.value) ;
+    };
+
+    /* The first entry of the bucket while it is a list (null while it is a tree, or if it is empty). */
+    private Entry head;
+
+    /* The number of entries of the bucket while it is a list. */
+    private int listSize;
+
+    /* The entries of the bucket while it is a tree (null while it is a list). */
+    private TreeSet<Entry> treeBucket;
 
     /**
-     * Add a specified element to the set if it's not already in it.
-     * @param newValue New value to add to the set
+     * Add a specified element to the set if it's not already in it (in a single scan of the bucket).
+     * @param newValue - New value to add to the set.
+     * @param hash - the hash code of the value.
      * @return False iff newValue already exists in the set
      */
-    public boolean add(java.lang.String newValue) {
+    public boolean add(java.lang.String newValue, int hash) {
         if ( newValue != null ){
-            bucket.push(newValue);
+            if ( isTree() ) {
+                return treeBucket.add(new Entry(newValue, hash, null));
+            }
+            if ( findEntry(newValue, hash) != null ) {
+                return false;
+            }
+            push(newValue, hash);
             return true;
         }
         return false;
     }
 
+    /**
+     * Adds a value that is known not to be in the bucket (for example, while rehashing), without scanning it.
+     * @param newValue - a new value to add (not null).
+     * @param hash - the hash code of the value.
+     */
+    public void push(java.lang.String newValue, int hash) {
+        if ( isTree() ) {
+            treeBucket.add(new Entry(newValue, hash, null));
+            return;
+        }
+        head = new Entry(newValue, hash, head);
+        listSize++;
+        if ( listSize >= TREEIFY_THRESHOLD ) {
+            treeify();
+        }
+    }
+
     /**
      * Look for a specified value in the set.
-     * @param searchVal Value to search for
+     * @param searchVal - Value to search for.
+     * @param hash - the hash code of the value.
      * @return True iff searchVal is found in the set
      */
-    public boolean contains(java.lang.String searchVal){
+    public boolean contains(java.lang.String searchVal, int hash){
+        if ( searchVal == null ) {
+            return false;
+        }
+        if ( isTree() ) {
+            return treeBucket.contains(new Entry(searchVal, hash, null)) ;
+        }
+        return findEntry(searchVal, hash) != null ;
+    }
 
-        return bucket.contains(searchVal) ;
+    /**
+     * Looks for a value like contains(), and counts the entries that the search compares: the position of
+     * the value in the list (or the size of the list if it isn't there), or the depth of a balanced tree of
+     * the size of the bucket while it is a tree.
+     * @param searchVal - Value to search for (not null).
+     * @param hash - the hash code of the value.
+     * @return the number of compared entries if the value was found, else minus the number of compared
+     * entries minus 1.
+     */
+    int probe(java.lang.String searchVal, int hash){
+        if ( isTree() ) {
+            int depth = Integer.SIZE - Integer.numberOfLeadingZeros(treeBucket.size()) ;
+            return treeBucket.contains(new Entry(searchVal, hash, null)) ? depth : -depth - 1 ;
+        }
+        int probes = 0 ;
+        for ( Entry entry = head; entry != null; entry = entry.next ) {
+            probes++ ;
+            if (( entry.hash == hash ) && entry.value.equals(searchVal) ) {
+                return probes ;
+            }
+        }
+        return -probes - 1 ;
     }
 
     /**
      * Remove the input element from the set.
      * @param toDelete - Value to delete.
+     * @param hash - the hash code of the value.
      * @return True - if toDelete is found and deleted.
      */
-    public boolean delete(java.lang.String toDelete){
-        if ( toDelete != null) {
-            return bucket.remove(toDelete);
+    public boolean delete(java.lang.String toDelete, int hash){
+        if ( toDelete == null ) {
+            return false;
         }
-        return true;
+        if ( isTree() ) {
+            boolean isDeleted = treeBucket.remove(new Entry(toDelete, hash, null));
+            if ( treeBucket.size() < UNTREEIFY_THRESHOLD ) {
+                untreeify();
+            }
+            return isDeleted;
+        }
+        Entry previous = null;
+        for ( Entry entry = head; entry != null; entry = entry.next ) {
+            if (( entry.hash == hash ) && entry.value.equals(toDelete) ) {
+                if ( previous == null ) {
+                    head = entry.next;
+                }
+                else {
+                    previous.next = entry.next;
+                }
+                listSize--;
+                return true;
+            }
+            previous = entry;
+        }
+        return false;
     }
 
     /**
      * @return The number of elements currently in the set.
      */
     public int size(){
-        return bucket.size();
+        if ( isTree() ) {
+            return treeBucket.size();
+        }
+        return listSize;
     }
 
-    /* returns an iterator of the bucket (starts at index 0) . */
-    public ListIterator<String> bucketIterator(){
-        return bucket.listIterator(0);
+    /**
+     * @return true if the values of this bucket are currently kept in a tree, false if in a linked list.
+     */
+    public boolean isTree(){
+        return treeBucket != null ;
     }
 
+    /**
+     * Performs the given action on every value of the bucket.
+     * @param action - the action to perform on each value.
+     */
+    public void forEach(Consumer<? super java.lang.String> action){
+        if ( isTree() ) {
+            for ( Entry entry: treeBucket ) {
+                action.accept(entry.value);
+            }
+        }
+        else {
+            for ( Entry entry = head; entry != null; entry = entry.next ) {
+                action.accept(entry.value);
+            }
+        }
+    }
+
+    /**
+     * @return the first entry of the bucket while it is a list (the rest follow by Entry.next), or null if
+     * it is empty or a tree.
+     */
+    Entry first(){
+        return head;
+    }
+
+    /**
+     * @return an iterator of the entries of the bucket while it is a tree.
+     */
+    Iterator<Entry> treeIterator(){
+        return treeBucket.iterator();
+    }
+
+    /* returns the entry of the value in the list, or null if it isn't there. */
+    private Entry findEntry(java.lang.String value, int hash) {
+        for ( Entry entry = head; entry != null; entry = entry.next ) {
+            if (( entry.hash == hash ) && entry.value.equals(value) ) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /* moves the entries of the bucket from the linked list to a tree. */
+    private void treeify(){
+        treeBucket = new TreeSet<Entry>(ENTRY_ORDER);
+        for ( Entry entry = head; entry != null; entry = entry.next ) {
+            treeBucket.add(new Entry(entry.value, entry.hash, null));
+        }
+        head = null;
+        listSize = 0;
+    }
+
+    /* moves the entries of the bucket from the tree back to a linked list (in the order of the tree). */
+    private void untreeify(){
+        for ( Entry entry: treeBucket.descendingSet() ) {
+            head = new Entry(entry.value, entry.hash, head);
+            listSize++;
+        }
+        treeBucket = null;
+    }
+
+    /**
+     * An entry of a bucket: a value, its hash code, and the next entry of the list (null in a tree).
+     */
+    static final class Entry {
+
+        /* The value of the entry. */
+        final java.lang.String value;
+
+        /* The full hash code of the value. */
+        final int hash;
+
+        /* The next entry of the list (null for the last one, and in a tree). */
+        Entry next;
+
+        /* builds an entry of the given value and hash code, before the given entry. */
+        Entry(java.lang.String value, int hash, Entry next) {
+            this.value = value;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,228 @@
+/**
+ * An append-only arena of off-heap memory (direct ByteBuffers), that keeps length prefixed records of bytes.
+ * A record is addressed by an int: the index of its chunk in the highest 6 bits, and its position in the
+ * chunk in the lowest 26 bits (so the arena holds up to 4GB in 64 chunks of up to 64MB). A chunk starts small
+ * and is doubled until it reaches its maximal size, and only then a new chunk is started, so a record never
+ * spans two chunks.
+ * The length of a record is kept before its bytes in 1 byte (for up to 127 bytes) or more (7 bits a byte).
+ * A released record is not reused: its bytes are counted as garbage, and a new arena can be compacted by
+ * copying the live records into it.
+ * @author eden horka
+ */
+
+import java.nio.ByteBuffer;
+
+class ByteArena {
+
+    /* The number of bits of the position of a record in its chunk. */
+    private static final int CHUNK_BITS = 26 ;
+
+    /* The maximal size of a chunk (in bytes). */
+    private static final int MAX_CHUNK_SIZE = 1 << CHUNK_BITS ;
+
+    /* The maximal number of chunks. */
+    private static final int MAX_CHUNKS = 1 << ( Integer.SIZE - CHUNK_BITS ) ;
+
+    /* The size of a new chunk (in bytes). */
+    private static final int INITIAL_CHUNK_SIZE = 1 << 12 ;
+
+    /* The chunks of the arena (only the last one has room for new records). */
+    private ByteBuffer[] chunks = new ByteBuffer[1] ;
+
+    /* The number of chunks of the arena. */
+    private int numOfChunks ;
+
+    /* The position of the next record in the last chunk. */
+    private int position ;
+
+    /* The number of bytes of the live records. */
+    private long liveBytes ;
+
+    /* The number of bytes of the released records. */
+    private long garbageBytes ;
+
+    /**
+     * Builds a new, empty arena with a single small chunk.
+     */
+    ByteArena() {
+        chunks[0] = ByteBuffer.allocateDirect(INITIAL_CHUNK_SIZE) ;
+        numOfChunks = 1 ;
+        // the address 0 is never given to a record, so it can mark an empty cell
+        position = 1 ;
+    }
+
+    /**
+     * Appends a record with the first length bytes of the given array.
+     * @param bytes - the bytes of the record.
+     * @param length - the number of bytes of the record.
+     * @return the address of the new record (never 0).
+     */
+    int append(byte[] bytes, int length) {
+        int size = headerSize(length) + length ;
+        ByteBuffer chunk = reserve(size) ;
+        int address = address(numOfChunks - 1, position) ;
+        int offset = writeLength(chunk, position, length) ;
+        chunk.position(offset);
+        chunk.put(bytes, 0, length);
+        position = offset + length ;
+        liveBytes += size ;
+        return address ;
+    }
+
+    /**
+     * Appends a copy of a record of another arena.
+     * @param other - the arena of the record.
+     * @param address - the address of the record in the other arena.
+     * @return the address of the new record (never 0).
+     */
+    int copyFrom(ByteArena other, int address) {
+        int size = other.recordSize(address) ;
+        ByteBuffer source = other.chunks[address >>> CHUNK_BITS].duplicate() ;
+        int offset = address & ( MAX_CHUNK_SIZE - 1 ) ;
+        source.limit(offset + size);
+        source.position(offset);
+        ByteBuffer chunk = reserve(size) ;
+        int newAddress = address(numOfChunks - 1, position) ;
+        chunk.position(position);
+        chunk.put(source);
+        position += size ;
+        liveBytes += size ;
+        return newAddress ;
+    }
+
+    /**
+     * Checks if a record has the given bytes, comparing them byte by byte.
+     * @param address - the address of the record.
+     * @param bytes - the bytes to compare.
+     * @param length - the number of bytes to compare.
+     * @return true iff the record has exactly the first length bytes of the given array.
+     */
+    boolean matches(int address, byte[] bytes, int length) {
+        ByteBuffer chunk = chunks[address >>> CHUNK_BITS] ;
+        int offset = address & ( MAX_CHUNK_SIZE - 1 ) ;
+        if ( readLength(chunk, offset) != length ) {
+            return false ;
+        }
+        offset += headerSize(length) ;
+        for (int i = 0; i < length; i++) {
+            if ( chunk.get(offset + i) != bytes[i] ) {
+                return false ;
+            }
+        }
+        return true ;
+    }
+
+    /**
+     * Marks a record as released: its bytes are counted as garbage until the arena is compacted.
+     * @param address - the address of the record.
+     */
+    void release(int address) {
+        int size = recordSize(address) ;
+        liveBytes -= size ;
+        garbageBytes += size ;
+    }
+
+    /**
+     * @return the number of bytes of the live records.
+     */
+    long liveBytes() {
+        return liveBytes ;
+    }
+
+    /**
+     * @return the number of bytes of the released records.
+     */
+    long garbageBytes() {
+        return garbageBytes ;
+    }
+
+    /**
+     * @return the number of bytes of off-heap memory allocated by the arena.
+     */
+    long allocatedBytes() {
+        long allocated = 0 ;
+        for (int i = 0; i < numOfChunks; i++) {
+            allocated += chunks[i].capacity() ;
+        }
+        return allocated ;
+    }
+
+    /* returns the size (header and bytes) of the record in the given address. */
+    private int recordSize(int address) {
+        ByteBuffer chunk = chunks[address >>> CHUNK_BITS] ;
+        int length = readLength(chunk, address & ( MAX_CHUNK_SIZE - 1 )) ;
+        return headerSize(length) + length ;
+    }
+
+    /* returns the last chunk, after making room in it for a record of the given size: the chunk is doubled,
+     * or a new chunk is started if it reached its maximal size. */
+    private ByteBuffer reserve(int size) {
+        if ( size >= MAX_CHUNK_SIZE ) {
+            throw new IllegalArgumentException("A record of " + size + " bytes is larger than a chunk.");
+        }
+        ByteBuffer chunk = chunks[numOfChunks - 1] ;
+        if ( position + size <= chunk.capacity() ) {
+            return chunk ;
+        }
+        if (( chunk.capacity() < MAX_CHUNK_SIZE ) && ( position + size <= MAX_CHUNK_SIZE )) {
+            int newSize = 2 * chunk.capacity() ;
+            while ( newSize < position + size ) {
+                newSize = 2 * newSize ;
+            }
+            ByteBuffer newChunk = ByteBuffer.allocateDirect(Math.min(newSize, MAX_CHUNK_SIZE)) ;
+            ByteBuffer used = chunk.duplicate() ;
+            used.limit(position);
+            used.position(0);
+            newChunk.put(used);
+            chunks[numOfChunks - 1] = newChunk ;
+            return newChunk ;
+        }
+        if ( numOfChunks == MAX_CHUNKS ) {
+            throw new IllegalStateException("The arena is full.");
+        }
+        if ( numOfChunks == chunks.length ) {
+            chunks = java.util.Arrays.copyOf(chunks, Math.min(2 * chunks.length, MAX_CHUNKS));
+        }
+        chunks[numOfChunks++] = ByteBuffer.allocateDirect(Math.max(INITIAL_CHUNK_SIZE, size)) ;
+        position = 0 ;
+        return chunks[numOfChunks - 1] ;
+    }
+
+    /* reads the length that is kept at the given offset of the chunk. */
+    private static int readLength(ByteBuffer chunk, int offset) {
+        int length = 0 ;
+        int shift = 0 ;
+        byte b ;
+        do {
+            b = chunk.get(offset++) ;
+            length |= ( b & 0x7F ) << shift ;
+            shift += 7 ;
+        } while ( b < 0 ) ;
+        return length ;
+    }
+
+    /* writes the given length at the given offset of the chunk, and returns the offset after it. */
+    private static int writeLength(ByteBuffer chunk, int offset, int length) {
+        while ( length >= 0x80 ) {
+            chunk.put(offset++, (byte) (( length & 0x7F ) | 0x80 ));
+            length >>>= 7 ;
+        }
+        chunk.put(offset++, (byte) length);
+        return offset ;
+    }
+
+    /* returns the number of bytes that keep the given length. */
+    private static int headerSize(int length) {
+        int size = 1 ;
+        while ( length >= 0x80 ) {
+            length >>>= 7 ;
+            size++ ;
+        }
+        return size ;
+    }
+
+    /* returns the address of the given position in the given chunk. */
+    private static int address(int chunkIndex, int offset) {
+        return ( chunkIndex << CHUNK_BITS ) | offset ;
+    }
+}
\ No newline at end of file
@@ -2,18 +2,60 @@
  * This class represents a hash set of an closing hashing model, in which each cell contains at
  * most one item.
  * In this model, each cell in the hash table is a reference to an object (HashTableCell) that has a string
- * as a value and a boolean that marks if the cell is deleted.
+ * as a value and a state: empty (never used), occupied or deleted.
  * When a new string is mapped to an occupied cell, there’s need to probe further in the array to find an
  * empty spot.
+ * A search stops at the first empty cell, and an insertion reuses the first deleted cell on its way. Once the
+ * deleted cells pass a given fraction of the table, the table is rehashed (with the same capacity) to clean
+ * them up.
+ * A cell object is created only when a value is first added to it (a null cell is an empty cell).
+ * In the incremental resize mode, a resize does not rehash all the elements at once: the old array is kept
+ * beside the new one, and a few cells are moved from the old array to the new one on every addition or
+ * deletion, until the old array is empty.
+ * In the parallel resize mode, a very large table is rehashed by several threads (on a ForkJoinPool): each
+ * thread places the cells whose home cells are in its own range of the new array, and the few cells that
+ * probe out of their range are placed afterwards by a single thread, in a fixed order.
+ * A cell keeps the hash code of its value, so a probe compares strings only when their hash codes match, and
+ * a rehash places the cells without hashing the values again.
+ * With -Dhashset.statistics=true, the set records the number of cells probed by every search and the time of
+ * every rehash (see SimpleHashSet.statistics()).
  * @author eden horka
  */
 
 
 public class ClosedHashSet extends SimpleHashSet {
 
+    /* The default fraction of the table that the deleted cells may take before they are cleaned up. */
+    protected static final float DEFAULT_DELETED_LOAD_FACTOR = 0.25f ;
+
+    /* The number of cells that are moved from the old array on each addition or deletion, while an
+     * incremental resize is in progress. */
+    private static final int MIGRATION_STEP = 16 ;
+
+    /* The number of ranges that the old array and the new array are each split into by a parallel rehash. */
+    private static final int PARALLEL_RANGES = 64 ;
+
     /* An array of strings represents a closed hash set. */
     private HashTableCell[] closedHashSet;
 
+    /* The array of cells from before the resize, while an incremental resize is in progress (else null). */
+    private HashTableCell[] oldHashSet ;
+
+    /* The index of the next cell of the old array that is moved to the new array. */
+    private int migrationIndex ;
+
+    /* true if the hash set resizes incrementally, false if it rehashes all the elements at once. */
+    private boolean isIncrementalResize ;
+
+    /* true if a rehash of a very large table is split between several threads. */
+    private boolean isParallelResize ;
+
+    /* The current number of deleted cells in the hash set. */
+    private int numOfDeleted ;
+
+    /* The fraction of the table that the deleted cells may take before they are cleaned up. */
+    private float deletedLoadFactor = DEFAULT_DELETED_LOAD_FACTOR ;
+
 
     /* ===== Constructors: ==== */
 
@@ -23,7 +65,6 @@ public class ClosedHashSet extends SimpleHashSet {
      */
     public ClosedHashSet() {
         closedHashSet = new HashTableCell[capacity];
-        reset(closedHashSet);
     }
 
 
@@ -37,46 +78,113 @@ public class ClosedHashSet extends SimpleHashSet {
 
     public ClosedHashSet(float upperLoadFactor, float lowerLoadFactor) {
         closedHashSet = new HashTableCell[capacity] ;
-        reset(closedHashSet) ;
         lowLoadFactor = lowerLoadFactor;
         upLoadFactor = upperLoadFactor;
     }
 
     /**
      * A constructor of a closed hash set.
-     * Builds the hash set by adding elements one by one (duplicate values should be ignored).
-     * The new table has the default values.
+     * Builds a new, empty table with the specified load factors and hash function, and the default initial
+     * capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     */
+    public ClosedHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction) {
+        super(upperLoadFactor, lowerLoadFactor, hashFunction);
+        closedHashSet = new HashTableCell[capacity] ;
+    }
+
+    /**
+     * A constructor of a closed hash set.
+     * Builds a new, empty table with the specified load factors, hash function and fraction of deleted cells,
+     * and the default initial capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     * @param deletedLoadFactor - The fraction of the table that the deleted cells may take before they are
+     *                          cleaned up.
+     */
+    public ClosedHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction,
+                         float deletedLoadFactor) {
+        this(upperLoadFactor, lowerLoadFactor, hashFunction);
+        this.deletedLoadFactor = deletedLoadFactor;
+    }
+
+    /**
+     * A constructor of a closed hash set.
+     * Builds the hash set with the given elements (duplicate values should be ignored).
+     * The table is allocated once, with a capacity that fits all the elements, and filled in a single pass.
+     * The new table has the default load factors.
      *
      * @param data - Values to add to the set.
      */
     public ClosedHashSet(String[] data) {
+        setInitialCapacity(data.length);
         closedHashSet = new HashTableCell[capacity];
-        reset(closedHashSet);
-        for (String value: data) {
-            add(value);
-        }
+        addAll(data);
     }
 
 
     /* ==== Methods: ==== */
 
     /**
-     * Add a specified element to the set if it's not already in it.
-     *
-     * @param newValue New value to add to the set
-     * @return False iff newValue already exists in the set
+     * Sets the resize mode of the hash set.
+     * In the incremental mode, a resize keeps the old array beside the new one and moves a few cells on every
+     * addition or deletion, so no single call rehashes all the elements.
+     * @param isIncremental - true for the incremental resize mode, false to rehash all the elements at once.
      */
-    public boolean add(String newValue) {
-        if (( newValue != null ) && ( ! contains(newValue) )) {
-            for ( int i=0; i < capacity ; i++ ) {
-                int index = findIndex(newValue, i);
-                if ( isCellDeleted(index) ) {
-                    closedHashSet[index].setValue(newValue);
-                    numOfElements++ ;
-                    reHashAfterAddition();
-                    return true;
+    public void setIncrementalResize(boolean isIncremental) {
+        if ( ! isIncremental ) {
+            finishMigration();
+        }
+        isIncrementalResize = isIncremental ;
+    }
+
+    /**
+     * Sets the parallel resize mode of the hash set.
+     * In the parallel mode, a rehash of a very large table (65536 cells and more) is split into ranges of the
+     * new array that are filled in parallel on the common ForkJoinPool, each with the cells whose home cells
+     * are in it. The new table depends only on the old one (not on the number of threads or their timing),
+     * but colliding cells may be placed in a different order than by a single thread rehash. The
+     * incremental mode, if set, is used instead.
+     * @param isParallel - true for the parallel resize mode, false to rehash on the calling thread only.
+     */
+    public void setParallelResize(boolean isParallel) {
+        isParallelResize = isParallel ;
+    }
+
+    /* looks for the value along its probing sequence, and if it wasn't found, adds it to the first free cell
+     * on the way: either the first deleted cell, or the empty cell that ended the search. */
+    protected boolean insertIfAbsent(String value, int hash) {
+        if ( oldHashSet != null ) {
+            migrate();
+            if ( findOldValue(value, hash) != -1 ) {
+                return false;
+            }
+        }
+        int firstDeleted = -1;
+        for ( int i=0; i < capacity ; i++ ) {
+            int index = findIndex(hash, i);
+            HashTableCell cell = closedHashSet[index];
+            if (( cell == null ) || cell.isEmpty() ) {
+                insert(( firstDeleted == -1 ) ? index : firstDeleted, value, hash);
+                return true;
+            }
+            if ( cell.isDeleted() ) {
+                if ( firstDeleted == -1 ) {
+                    firstDeleted = index;
                 }
             }
+            else if ( cell.holds(value, hash) ) {
+                return false;
+            }
+        }
+        if ( firstDeleted != -1 ) {
+            insert(firstDeleted, value, hash);
+            return true;
         }
         return false;
     }
@@ -88,24 +196,87 @@ public class ClosedHashSet extends SimpleHashSet {
      * @return True - if searchVal is found in the set
      */
     public boolean contains(String searchVal){
-        int index = findValue(searchVal);
-        return  index != -1 ;
+        if (searchVal == null) {
+            return false;
+        }
+        int hash = hash(searchVal);
+        if ( HashSetStatistics.ENABLED ) {
+            return recordedContains(searchVal, hash) ;
+        }
+        return ( findValue(closedHashSet, searchVal, hash) != -1 ) || ( findOldValue(searchVal, hash) != -1 ) ;
+    }
+
+    /* looks for the value like contains(), and records the number of cells probed in the arrays. */
+    private boolean recordedContains(String value, int hash) {
+        int probes = probe(closedHashSet, value, hash) ;
+        if (( probes < 0 ) && ( oldHashSet != null )) {
+            int oldProbes = probe(oldHashSet, value, hash) ;
+            // the cells of both arrays are counted
+            probes = ( oldProbes > 0 ) ? oldProbes - probes - 1 : probes + oldProbes + 1 ;
+        }
+        recorder.recordSearch(probes);
+        return probes > 0 ;
+    }
+
+    /* looks for the value in the given array like findValue(), and returns the number of probed cells if it
+     * was found, else minus the number of probed cells minus 1. */
+    private static int probe( HashTableCell[] hashSet, String searchVal, int hash ) {
+        for (int i = 0; i < hashSet.length ; i++) {
+            HashTableCell cell = hashSet[findIndex(hash, i, hashSet.length)];
+            if (( cell == null ) || cell.isEmpty() ) {
+                return -i - 2;
+            }
+            if ( cell.holds(searchVal, hash) ) {
+                return i + 1;
+            }
+        }
+        return -hashSet.length - 1;
     }
 
     /**
-     * Remove the input element from the set.
-     * @param toDelete Value to delete
-     * @return True iff toDelete is found and deleted
+     * @return the histogram of the lengths of the clusters of used (occupied or deleted) cells of the table,
+     * in the order of the table (a cluster that wraps around the end of the table is counted as two).
      */
-    public boolean delete(String toDelete) {
-        if (toDelete == null){
-            return false;
+    protected long[] chainLengths() {
+        long[] chainLengths = new long[HashSetStatistics.MAX_LENGTH + 1] ;
+        int length = 0 ;
+        for ( HashTableCell cell: closedHashSet ) {
+            if (( cell != null ) && ( ! cell.isEmpty() )) {
+                length++ ;
+            }
+            else if ( length > 0 ) {
+                chainLengths[Math.min(length, HashSetStatistics.MAX_LENGTH)]++ ;
+                length = 0 ;
+            }
+        }
+        if ( length > 0 ) {
+            chainLengths[Math.min(length, HashSetStatistics.MAX_LENGTH)]++ ;
+        }
+        return chainLengths ;
+    }
+
+    /**
+     * @return the number of deleted cells of the table.
+     */
+    protected int numOfTombstones() {
+        return numOfDeleted ;
+    }
+
+    /* looks for the value along its probing sequence, and marks its cell as deleted if it was found. */
+    protected boolean removeIfPresent(String value, int hash) {
+        if ( oldHashSet != null ) {
+            migrate();
+            int oldIndex = findOldValue(value, hash);
+            if ( oldIndex != -1 ) {
+                // a deleted cell in the old array is not counted, the array is dropped once it is moved
+                oldHashSet[oldIndex].delete() ;
+                return true ;
+            }
         }
-        int index = findValue(toDelete);
+        int index = findValue(closedHashSet, value, hash);
         if ( isIndexValid(index) ) {
             closedHashSet[index].delete() ;
-            numOfElements-- ;
-            reHashAfterDeletion();
+            numOfDeleted++ ;
             return true ;
             }
         return false ;
@@ -120,97 +291,339 @@ public class ClosedHashSet extends SimpleHashSet {
         return hashIndex & (capacity - 1 ) ;
     }
 
-    private boolean isCellDeleted(int index){
-        return  isIndexValid(index) && closedHashSet[index].isDeleted() ;
+    /**
+     * @return the fraction of the table that the deleted cells may take before they are cleaned up.
+     */
+    public float getDeletedLoadFactor() {
+        return deletedLoadFactor ;
+    }
+
+    /* sets the value of a free (empty or deleted) cell. */
+    private void insert(int index, String value, int hash){
+        if ( closedHashSet[index] == null ) {
+            closedHashSet[index] = new HashTableCell();
+        }
+        else if ( closedHashSet[index].isDeleted() ) {
+            numOfDeleted-- ;
+        }
+        closedHashSet[index].setValue(value, hash);
+    }
+
+    /**
+     * Performs the given action on every value of the set (including the values of the old array that were
+     * not moved yet, while an incremental resize is in progress). Empty and deleted cells are skipped.
+     * The set must not be changed by the action.
+     * @param action - the action to perform on each value.
+     */
+    public void forEach(java.util.function.Consumer<? super java.lang.String> action) {
+        for (int slot = 0; slot < numOfSlots(); slot++) {
+            HashTableCell cell = cellAt(slot) ;
+            if (( cell != null ) && cell.isOccupied() ) {
+                action.accept(cell.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return a new cursor over the values of the set, that allocates nothing per value. The set must not be
+     * changed while the cursor is used.
+     */
+    public SetCursor cursor() {
+        return new Cursor(0, numOfSlots()) ;
+    }
+
+    /**
+     * @return a spliterator over the values of the set, that splits the table into ranges of cells (for a
+     * parallel stream: java.util.stream.StreamSupport.stream(set.spliterator(), true)). The set must not be
+     * changed while the spliterator is used.
+     */
+    public java.util.Spliterator<String> spliterator() {
+        return new SlotSpliterator(Cursor::new, 0, numOfSlots(), numOfElements) ;
+    }
+
+    /* returns the number of slots of the traversals: the cells of the table, followed by the cells of the
+     * old array (while an incremental resize is in progress). */
+    private int numOfSlots() {
+        return closedHashSet.length + (( oldHashSet != null ) ? oldHashSet.length : 0) ;
+    }
+
+    /* returns the cell of the given slot of the traversals (null for an empty cell, or a cell of the old
+     * array that was already moved). */
+    private HashTableCell cellAt(int slot) {
+        if ( slot < closedHashSet.length ) {
+            return closedHashSet[slot] ;
+        }
+        int oldIndex = slot - closedHashSet.length ;
+        return ( oldIndex >= migrationIndex ) ? oldHashSet[oldIndex] : null ;
     }
 
     /* calculates and returns the matching legal index in the hash set.  */
-    private int findIndex(java.lang.String value, int i) {
-        int hashIndex = value.hashCode() + (i + i * i) / 2;
+    private int findIndex(int hash, int i) {
+        int hashIndex = hash + (i + i * i) / 2;
         return clamp(hashIndex);
     }
 
+    /* calculates and returns the matching index in a hash set array of the given length. */
+    private static int findIndex(int hash, int i, int length) {
+        return ( hash + (i + i * i) / 2 ) & ( length - 1 );
+    }
 
-    /* returns -1 if the value wasn't found (or was found in a deleted cell),
-     * else returns its index in the hash set. */
-    private int findValue( java.lang.String searchVal ) {
+
+    /* returns -1 if the value wasn't found in the given array, else returns its index in the array.
+     * The search stops at the first empty cell, since the value could not have been added after it. */
+    private int findValue( HashTableCell[] hashSet, java.lang.String searchVal, int hash ) {
         int deletedCell = -1;
         int index;
-        for (int i = 0; i < capacity ; i++) {
-            index = findIndex(searchVal, i);
-            if ( isIndexValid(index) ) {
-                String cellValue = closedHashSet[index].getValue();
-                if ((cellValue != null) && (cellValue.equals(searchVal) )) {
-                    if (isCellDeleted(index)) {
-                        return deletedCell;
-                    }
-                    else {
-                        return index;
-                    }
-                }
+        for (int i = 0; i < hashSet.length ; i++) {
+            index = findIndex(hash, i, hashSet.length);
+            HashTableCell cell = hashSet[index];
+            if (( cell == null ) || cell.isEmpty() ) {
+                return deletedCell;
+            }
+            if ( cell.holds(searchVal, hash) ) {
+                return index;
             }
         }
         return deletedCell;
     }
 
+    /* returns -1 if there is no resize in progress or the value wasn't found in the old array, else returns
+     * its index in the old array. */
+    private int findOldValue( java.lang.String searchVal, int hash ) {
+        if ( oldHashSet == null ) {
+            return -1;
+        }
+        return findValue(oldHashSet, searchVal, hash);
+    }
+
+    /* returns the index of the first free (empty or deleted) cell in the probing sequence of the given hash,
+     * in the given array. */
+    private static int findFreeCell( HashTableCell[] hashSet, int hash ) {
+        for (int i = 0; i < hashSet.length ; i++) {
+            int index = findIndex(hash, i, hashSet.length);
+            if (( hashSet[index] == null ) || ( ! hashSet[index].isOccupied() )) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /* moves the next MIGRATION_STEP cells of the old array to the new array. */
+    private void migrate() {
+        int end = Math.min(migrationIndex + MIGRATION_STEP, oldHashSet.length) ;
+        for (; migrationIndex < end; migrationIndex++) {
+            moveCell(oldHashSet[migrationIndex]);
+        }
+        if ( migrationIndex == oldHashSet.length ) {
+            oldHashSet = null ;
+        }
+    }
 
-    /* Rehashes all the elements in the open hash set. */
+    /* moves all the remaining cells of the old array to the new array, if a resize is in progress. */
+    private void finishMigration() {
+        if ( oldHashSet != null ) {
+            for (; migrationIndex < oldHashSet.length; migrationIndex++) {
+                moveCell(oldHashSet[migrationIndex]);
+            }
+            oldHashSet = null ;
+        }
+    }
+
+    /* moves the value of the given cell of the old array (if it has one) to the new array, and marks the old
+     * cell as deleted, so searches in the old array continue past it. */
+    private void moveCell(HashTableCell cell) {
+        if (( cell != null ) && cell.isOccupied() ) {
+            java.lang.String value = cell.getValue() ;
+            insert(findFreeCell(closedHashSet, cell.getHash()), value, cell.getHash());
+            cell.delete();
+        }
+    }
+
+
+    /* Rehashes all the elements in the closed hash set, by the hash codes kept in their cells. */
     private void reHash(){
         HashTableCell[] newHashSet = new HashTableCell[capacity] ;
-        // resets the new hash table
-        reset(newHashSet);
-        for ( HashTableCell cell: closedHashSet ) {
-            java.lang.String value = cell.getValue() ;
-            // checks if the cell has a value and is not deleted:
-            if ((value != null) && ( !cell.isDeleted() )) {
-                for(int i=0; i<capacity ;i++) {
-                    int newIndex = findIndex(value, i);
-                    if (isIndexValid(newIndex)) {
-                        newHashSet[newIndex].setValue(cell.getValue());
-                        break;
-                    }
+        if ( isParallelResize && ( closedHashSet.length >= RangeTask.PARALLEL_THRESHOLD )
+                && ( newHashSet.length >= PARALLEL_RANGES )) {
+            parallelReHash(closedHashSet, newHashSet);
+        }
+        else {
+            for ( HashTableCell cell: closedHashSet ) {
+                // checks if the cell has a value and is not deleted (the cell object itself is moved):
+                if (( cell != null ) && cell.isOccupied() ) {
+                    newHashSet[findFreeCell(newHashSet, cell.getHash())] = cell;
                 }
             }
         }
         closedHashSet = newHashSet;
+        numOfDeleted = 0 ;
     }
 
-    /* reset the cells of the hash set to be empty (and not null) */
-    private void reset(HashTableCell[] hashSet){
-        for (int i=0; i<capacity ;i++){
-            hashSet[i] = new HashTableCell() ;
+    /* Rehashes the cells of the given array into the new array in parallel. Both arrays are split into
+     * PARALLEL_RANGES ranges. The occupied cells are first sorted (in parallel, by the ranges of the old
+     * array) into runs by the range of their home cell in the new array, each run in the order of the old
+     * array. Then each task fills its own range of the new array with the cells of its run, in order, and
+     * leaves out a cell whose probing sequence reaches another range before a free cell. The cells that were
+     * left out are placed last, by the calling thread, in the order of the runs. Every cell is placed at the
+     * first free cell of its probing sequence at the time, so the searches find it, and the new table
+     * depends only on the old one. */
+    private static void parallelReHash(HashTableCell[] fromHashSet, HashTableCell[] toHashSet) {
+        int fromRange = fromHashSet.length / PARALLEL_RANGES ;
+        int toRange = toHashSet.length / PARALLEL_RANGES ;
+        // offsets[t * PARALLEL_RANGES + f] - the cells of the range f of the old array whose home cells are
+        // in the range t of the new array (first their number, then their next place in the runs)
+        int[] offsets = new int[PARALLEL_RANGES * PARALLEL_RANGES] ;
+        RangeTask.runInParallel((from, to) -> {
+            for (int f = from; f < to; f++) {
+                for (int i = f * fromRange; i < ( f + 1 ) * fromRange; i++) {
+                    HashTableCell cell = fromHashSet[i] ;
+                    if (( cell != null ) && cell.isOccupied() ) {
+                        offsets[homeRange(cell, toHashSet.length, toRange) * PARALLEL_RANGES + f]++ ;
+                    }
+                }
+            }
+        }, PARALLEL_RANGES, 1);
+        int[] runStarts = new int[PARALLEL_RANGES + 1] ;
+        int numOfCells = 0 ;
+        for (int i = 0; i < offsets.length; i++) {
+            if ( i % PARALLEL_RANGES == 0 ) {
+                runStarts[i / PARALLEL_RANGES] = numOfCells ;
+            }
+            int count = offsets[i] ;
+            offsets[i] = numOfCells ;
+            numOfCells += count ;
         }
+        runStarts[PARALLEL_RANGES] = numOfCells ;
+        HashTableCell[] runs = new HashTableCell[numOfCells] ;
+        RangeTask.runInParallel((from, to) -> {
+            for (int f = from; f < to; f++) {
+                for (int i = f * fromRange; i < ( f + 1 ) * fromRange; i++) {
+                    HashTableCell cell = fromHashSet[i] ;
+                    if (( cell != null ) && cell.isOccupied() ) {
+                        int run = homeRange(cell, toHashSet.length, toRange) * PARALLEL_RANGES + f ;
+                        runs[offsets[run]++] = cell ;
+                    }
+                }
+            }
+        }, PARALLEL_RANGES, 1);
+        RangeTask.runInParallel((from, to) -> {
+            for (int t = from; t < to; t++) {
+                for (int k = runStarts[t]; k < runStarts[t + 1]; k++) {
+                    int hash = runs[k].getHash() ;
+                    for (int i = 0; i < toHashSet.length; i++) {
+                        int index = findIndex(hash, i, toHashSet.length) ;
+                        if ( index / toRange != t ) {
+                            break ;
+                        }
+                        if ( toHashSet[index] == null ) {
+                            toHashSet[index] = runs[k] ;
+                            runs[k] = null ;
+                            break ;
+                        }
+                    }
+                }
+            }
+        }, PARALLEL_RANGES, 1);
+        for ( HashTableCell cell: runs ) {
+            if ( cell != null ) {
+                toHashSet[findFreeCell(toHashSet, cell.getHash())] = cell ;
+            }
+        }
+    }
+
+    /* returns the range of the home cell of the given cell, in an array of the given length split into ranges
+     * of the given length. */
+    private static int homeRange(HashTableCell cell, int length, int rangeLength) {
+        return findIndex(cell.getHash(), 0, length) / rangeLength ;
+    }
 
+    /* Changes the capacity of the hash set, and either rehashes all the elements or starts an incremental
+     * resize (only its start is timed by the statistics). */
+    protected void resize(int newCapacity) {
+        long start = HashSetStatistics.ENABLED ? System.nanoTime() : 0 ;
+        finishMigration();
+        capacity = newCapacity ;
+        if ( isIncrementalResize ) {
+            oldHashSet = closedHashSet ;
+            closedHashSet = new HashTableCell[capacity] ;
+            numOfDeleted = 0 ;
+            migrationIndex = 0 ;
+        }
+        else {
+            reHash() ;
+        }
+        if ( HashSetStatistics.ENABLED ) {
+            recorder.recordRehash(System.nanoTime() - start);
+        }
     }
 
     /* Check if the current load factor exceeds the upper or the lower border
      * and if it does, then rehashes the hash set. */
-    private void reHashAfterDeletion() {
-        loadFactor = ((float) numOfElements) / capacity;
-        if (loadFactor < lowLoadFactor) {
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
             minimizeSet();
         }
+        else if ( ((float) numOfDeleted) / capacity > deletedLoadFactor ) {
+            resize(capacity) ;
+        }
     }
 
-    private void reHashAfterAddition(){
+    /* The deleted cells are counted as used cells, so that there are always empty cells to stop the searches.
+     * If the table is too full only because of them, it is rehashed with the same capacity. */
+    protected void reHashAfterAddition(){
         loadFactor = ((float) numOfElements) / capacity;
         if ( loadFactor >= upLoadFactor ) {
             enlargeSet() ;
         }
+        else if ( ((float) (numOfElements + numOfDeleted)) / capacity >= upLoadFactor ) {
+            resize(capacity) ;
+        }
     }
 
     /* Minimize the capacity (size) of the hash set. */
     private void minimizeSet(){
         if ( capacity >= 2 ){
-            capacity = capacity/2 ;
-            reHash() ;
+            resize(capacity/2) ;
         }
     }
 
     /* Enlarge the capacity (size) of the hash set. */
     private void enlargeSet() {
-        capacity = 2 * capacity ;
-        reHash() ;
+        resize(2 * capacity) ;
     }
-}
 
+    /* A cursor over a range of slots of the set, that skips the empty and deleted cells. */
+    private class Cursor implements SetCursor {
+
+        /* The next slot of the range. */
+        private int slot ;
+
+        /* The slot after the last slot of the range. */
+        private final int end ;
+
+        /* The current value. */
+        private java.lang.String value ;
+
+        /* builds a cursor over the slots from (including) to end (excluding). */
+        Cursor(int from, int end) {
+            this.slot = from ;
+            this.end = end ;
+        }
+
+        public boolean advance() {
+            while ( slot < end ) {
+                HashTableCell cell = cellAt(slot++) ;
+                if (( cell != null ) && cell.isOccupied() ) {
+                    value = cell.getValue() ;
+                    return true ;
+                }
+            }
+            value = null ;
+            return false ;
+        }
+
+        public java.lang.String value() {
+            return value ;
+        }
+    }
+}
\ No newline at end of file
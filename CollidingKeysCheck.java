@@ -0,0 +1,94 @@
+/**
+ * A regression check of the thread safe sets with keys that share their hashCode() (such as data1.txt): every
+ * set gets NUM_OF_KEYS colliding keys, deletes every other one and searches them all.
+ * A set that keeps resizing instead of placing the keys would never return, so every set is checked on its
+ * own thread, and a set that doesn't finish within TIMEOUT_SECONDS fails the check instead of hanging it.
+ * The check is separate from SimpleSetPerformanceAnalyzer, so the measured runs don't pay for it. It prints
+ * the result of every set, and exits with status 1 if any of them failed.
+ * @author eden horka
+ */
+
+public class CollidingKeysCheck {
+
+    /* The number of colliding keys added to each set. */
+    private static final int NUM_OF_KEYS = 1000 ;
+
+    /* The time a set has to finish the check, in seconds. */
+    private static final long TIMEOUT_SECONDS = 30 ;
+
+    /* The seed of the generated keys (so every run checks the same keys). */
+    private static final long SEED = 42 ;
+
+    /* The names of the checked sets. */
+    private static final String[] setTypes = {"concurrent open hash set", "lock free closed hash set"} ;
+
+    /* A utility class is never instantiated. */
+    private CollidingKeysCheck() {
+    }
+
+    /* Returns a new, empty set of the given index in setTypes. */
+    private static SimpleSet newSet(int setNum) {
+        switch (setNum) {
+            case 0:
+                return new ConcurrentOpenHashSet();
+            default:
+                return new LockFreeClosedHashSet();
+        }
+    }
+
+    /* Checks a given empty set with the given keys: adds them, deletes every other one and searches them
+     * all. Returns true iff the set answered every operation correctly (the set is left empty). */
+    private static boolean check(SimpleSet set, String[] keys) {
+        for ( String key: keys ) {
+            if ( ! set.add(key) ) {
+                return false ;
+            }
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            if ( ! set.delete(keys[i]) ) {
+                return false ;
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if ( set.contains(keys[i]) != ( i % 2 == 1 )) {
+                return false ;
+            }
+        }
+        for (int i = 1; i < keys.length; i += 2) {
+            set.delete(keys[i]);
+        }
+        return set.size() == 0 ;
+    }
+
+    /* Checks a given empty set on a new (daemon) thread, and returns null if it passed, else the reason it
+     * failed. */
+    private static String checkWithTimeout(SimpleSet set, String[] keys) throws InterruptedException {
+        boolean[] isPassed = new boolean[1] ;
+        Thread checker = new Thread(() -> isPassed[0] = check(set, keys), "CollidingKeysCheck") ;
+        checker.setDaemon(true);
+        checker.start();
+        checker.join(TIMEOUT_SECONDS * 1000);
+        if ( checker.isAlive() ) {
+            return "didn't finish within " + TIMEOUT_SECONDS + " seconds" ;
+        }
+        return isPassed[0] ? null : "gave a wrong answer" ;
+    }
+
+    /**
+     * Checks every thread safe set with colliding keys.
+     * @param args - not used.
+     * @throws InterruptedException if the checking thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String[] keys = new WorkloadGenerator(WorkloadGenerator.KeyType.COLLIDING, SEED).keys(NUM_OF_KEYS) ;
+        boolean isFailed = false ;
+        for (int i = 0; i < setTypes.length; i++) {
+            String failure = checkWithTimeout(newSet(i), keys) ;
+            System.out.println(setTypes[i] + " - " + (( failure == null ) ? "passed" : "failed: " + failure));
+            isFailed |= ( failure != null ) ;
+        }
+        if ( isFailed ) {
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,288 @@
+/**
+ * This class represents a thread safe hash set of an open hashing model (like OpenHashSet), that can be
+ * shared between threads without a global lock.
+ * The table is divided into segments (lock striping). Each segment is a small open hash table with its own
+ * lock and its own load factor checks, so additions and deletions in different segments run in parallel, and
+ * a resize locks only the segment that is resized.
+ * The chains of the buckets are made of immutable nodes: an addition adds a node at the head of a chain, and
+ * a deletion copies the nodes before the deleted one. So contains() never locks: it reads the current array
+ * of the segment and walks a chain that no thread changes under it, even while the segment is being resized.
+ * Each segment keeps its own count, so size() sums the counts of the segments and doesn't scan the table.
+ * @author eden horka
+ */
+
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentOpenHashSet implements SimpleSet {
+
+    /* The default number of segments (the number of additions and deletions that can run in parallel). */
+    protected static final int DEFAULT_CONCURRENCY_LEVEL = 16 ;
+
+    /* The minimal size of the array of a segment. */
+    private static final int MIN_SEGMENT_CAPACITY = 2 ;
+
+    /* The segments of the table. */
+    private final Segment[] segments ;
+
+    /* The number of bits the (mixed) hash code is shifted by to get the index of its segment. */
+    private final int segmentShift ;
+
+    /* The lower load factor of each segment. */
+    private final float lowLoadFactor ;
+
+    /* The upper load factor of each segment. */
+    private final float upLoadFactor ;
+
+    /* The hash function that maps the strings to the cells of the hash table. */
+    private final HashFunction hashFunction ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of a concurrent open hash set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor, and 16 segments.
+     */
+    public ConcurrentOpenHashSet() {
+        this(SimpleHashSet.DEFAULT_HIGHER_CAPACITY, SimpleHashSet.DEFAULT_LOWER_CAPACITY);
+    }
+
+    /**
+     * A constructor of a concurrent open hash set.
+     * Builds a new, empty table with the specified load factors, the default initial capacity and 16
+     * segments.
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     */
+    public ConcurrentOpenHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        this(upperLoadFactor, lowerLoadFactor, SimpleHashSet.DEFAULT_HASH_FUNCTION,
+                DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * A constructor of a concurrent open hash set.
+     * Builds a new, empty table with the specified load factors, hash function and number of segments.
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     * @param concurrencyLevel - The number of segments (rounded up to a power of 2).
+     */
+    public ConcurrentOpenHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction,
+                                 int concurrencyLevel) {
+        upLoadFactor = upperLoadFactor ;
+        lowLoadFactor = lowerLoadFactor ;
+        this.hashFunction = ( hashFunction == null ) ? SimpleHashSet.DEFAULT_HASH_FUNCTION : hashFunction ;
+        int numOfSegments = 1 ;
+        int shift = Integer.SIZE ;
+        while ( numOfSegments < concurrencyLevel ) {
+            numOfSegments = 2 * numOfSegments ;
+            shift-- ;
+        }
+        segmentShift = shift ;
+        segments = new Segment[numOfSegments] ;
+        int segmentCapacity = Math.max(MIN_SEGMENT_CAPACITY, SimpleHashSet.INITIAL_CAPACITY / numOfSegments);
+        for (int i = 0; i < numOfSegments; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * Locks only the segment of the element.
+     * @param newValue New value to add to the set
+     * @return False iff newValue already exists in the set
+     */
+    public boolean add(java.lang.String newValue) {
+        if ( newValue == null ) {
+            return false ;
+        }
+        int hash = BaseHashSet.spread(hashFunction.hash(newValue)) ;
+        return segmentFor(hash).add(newValue, hash) ;
+    }
+
+    /**
+     * Look for a specified value in the set.
+     * Never locks.
+     * @param searchVal Value to search for
+     * @return True iff searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        if ( searchVal == null ) {
+            return false ;
+        }
+        int hash = BaseHashSet.spread(hashFunction.hash(searchVal)) ;
+        return segmentFor(hash).contains(searchVal, hash) ;
+    }
+
+    /**
+     * Remove the input element from the set.
+     * Locks only the segment of the element.
+     * @param toDelete Value to delete
+     * @return True iff toDelete is found and deleted
+     */
+    public boolean delete(java.lang.String toDelete) {
+        if ( toDelete == null ) {
+            return false ;
+        }
+        int hash = BaseHashSet.spread(hashFunction.hash(toDelete)) ;
+        return segmentFor(hash).delete(toDelete, hash) ;
+    }
+
+    /**
+     * Sums the counts of the segments (without locking them or scanning the table). While other threads add
+     * or delete elements, the result may not include their latest changes.
+     * @return The number of elements currently in the set
+     */
+    public int size() {
+        int size = 0 ;
+        for ( Segment segment: segments ) {
+            size += segment.count ;
+        }
+        return size ;
+    }
+
+    /**
+     * @return The current capacity (number of cells) of the table (the sum of the capacities of its
+     * segments).
+     */
+    public int capacity() {
+        int capacity = 0 ;
+        for ( Segment segment: segments ) {
+            capacity += segment.table.length ;
+        }
+        return capacity ;
+    }
+
+    /* returns the segment of the given (mixed) hash code, chosen by its highest bits. */
+    private Segment segmentFor(int hash) {
+        return ( segments.length == 1 ) ? segments[0] : segments[hash >>> segmentShift] ;
+    }
+
+
+    /* An immutable node of a chain (bucket). */
+    private static final class Node {
+
+        /* The value of the node. */
+        final java.lang.String value ;
+
+        /* The (mixed) hash code of the value. */
+        final int hash ;
+
+        /* The next node of the chain. */
+        final Node next ;
+
+        Node(java.lang.String value, int hash, Node next) {
+            this.value = value ;
+            this.hash = hash ;
+            this.next = next ;
+        }
+    }
+
+
+    /* A segment of the table: an open hash table of immutable chains, with its own lock. */
+    private final class Segment {
+
+        /* The lock of the changes of the segment (searches don't take it). */
+        private final ReentrantLock lock = new ReentrantLock() ;
+
+        /* The current array of chains. A new array is published as a whole after a resize. */
+        volatile Node[] table ;
+
+        /* The number of elements in the segment. It is written last by every change, and read first by every
+         * search, so a search sees all the changes made before the last write of the count. */
+        volatile int count ;
+
+        Segment(int capacity) {
+            table = new Node[capacity] ;
+        }
+
+        /* looks for the value in its chain, without locking. */
+        boolean contains(java.lang.String value, int hash) {
+            if ( count == 0 ) {
+                return false ;
+            }
+            Node[] currentTable = table ;
+            Node node = currentTable[hash & ( currentTable.length - 1 )] ;
+            for (; node != null; node = node.next) {
+                if (( node.hash == hash ) && node.value.equals(value)) {
+                    return true ;
+                }
+            }
+            return false ;
+        }
+
+        /* adds the value at the head of its chain, unless the chain contains it. */
+        boolean add(java.lang.String value, int hash) {
+            lock.lock();
+            try {
+                Node[] currentTable = table ;
+                int index = hash & ( currentTable.length - 1 ) ;
+                Node first = currentTable[index] ;
+                for (Node node = first; node != null; node = node.next) {
+                    if (( node.hash == hash ) && node.value.equals(value)) {
+                        return false ;
+                    }
+                }
+                currentTable[index] = new Node(value, hash, first) ;
+                int newCount = count + 1 ;
+                if ( ((float) newCount) / currentTable.length > upLoadFactor ) {
+                    resize(2 * currentTable.length) ;
+                }
+                count = newCount ;
+                return true ;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /* removes the value from its chain by copying the nodes before it, if the chain contains it. */
+        boolean delete(java.lang.String value, int hash) {
+            lock.lock();
+            try {
+                Node[] currentTable = table ;
+                int index = hash & ( currentTable.length - 1 ) ;
+                Node first = currentTable[index] ;
+                Node toDelete = first ;
+                while (( toDelete != null ) && !(( toDelete.hash == hash ) && toDelete.value.equals(value))) {
+                    toDelete = toDelete.next ;
+                }
+                if ( toDelete == null ) {
+                    return false ;
+                }
+                Node newFirst = toDelete.next ;
+                for (Node node = first; node != toDelete; node = node.next) {
+                    newFirst = new Node(node.value, node.hash, newFirst) ;
+                }
+                currentTable[index] = newFirst ;
+                int newCount = count - 1 ;
+                if (( ((float) newCount) / currentTable.length < lowLoadFactor )
+                        && ( currentTable.length / 2 >= MIN_SEGMENT_CAPACITY )) {
+                    resize(currentTable.length / 2) ;
+                }
+                count = newCount ;
+                return true ;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /* copies all the chains into a new array of the given capacity and publishes it. The old array and
+         * its nodes are not changed, so searches that already read it stay correct. */
+        private void resize(int newCapacity) {
+            Node[] oldTable = table ;
+            Node[] newTable = new Node[newCapacity] ;
+            for ( Node first: oldTable ) {
+                for (Node node = first; node != null; node = node.next) {
+                    int index = node.hash & ( newCapacity - 1 ) ;
+                    newTable[index] = new Node(node.value, node.hash, newTable[index]) ;
+                }
+            }
+            table = newTable ;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+/**
+ * A hash function that uses the string's own hashCode() method.
+ * This is the hash function the simple hash sets use by default.
+ * @author eden horka
+ */
+
+public class DefaultHashFunction implements HashFunction {
+
+    /**
+     * Computes the hash code of a given string.
+     * @param value - the string to hash (not null).
+     * @return value.hashCode()
+     */
+    public int hash(java.lang.String value) {
+        return value.hashCode() ;
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * This class represents a generic hash set of a closed hashing model (like ClosedHashSet), in which each cell
+ * contains at most one element.
+ * The elements are hashed and compared by a HashStrategy. The table is two parallel arrays, of the elements
+ * and of their hash codes, so a probe compares elements only when their hash codes match, and a rehash
+ * places the elements without hashing them again. Probing is quadratic, a deleted cell is marked by a
+ * sentinel that searches pass over, and an insertion reuses the first deleted cell on its way. Once the
+ * deleted cells pass a fraction of the table, the table is rehashed (with the same capacity) to clean them
+ * up.
+ * @param <E> the type of the elements.
+ * @author eden horka
+ */
+
+import java.util.function.Consumer;
+
+public class GenericClosedHashSet<E> extends GenericHashSet<E> {
+
+    /* The value of a deleted cell. */
+    private static final Object DELETED = new Object() ;
+
+    /* The elements of the cells (null for an empty cell, DELETED for a deleted cell). */
+    private Object[] values ;
+
+    /* The hash codes of the elements of the cells. */
+    private int[] hashes ;
+
+    /* The number of deleted cells in the table. */
+    private int numOfDeleted ;
+
+    /* The fraction of the table that the deleted cells may take before they are cleaned up. */
+    private float deletedLoadFactor = ClosedHashSet.DEFAULT_DELETED_LOAD_FACTOR ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of a generic closed hash set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor, that hashes and
+     * compares the elements by their own hashCode() and equals().
+     */
+    public GenericClosedHashSet() {
+        values = new Object[capacity] ;
+        hashes = new int[capacity] ;
+    }
+
+    /**
+     * A constructor of a generic closed hash set.
+     * Builds a new, empty table with the default initial capacity, upper and lower load factor, and the given
+     * strategy.
+     *
+     * @param strategy - The strategy that hashes and compares the elements.
+     */
+    public GenericClosedHashSet(HashStrategy<? super E> strategy) {
+        this(DEFAULT_HIGHER_CAPACITY, DEFAULT_LOWER_CAPACITY, strategy);
+    }
+
+    /**
+     * A constructor of a generic closed hash set.
+     * Builds a new, empty table with the specified load factors and strategy, and the default initial
+     * capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param strategy - The strategy that hashes and compares the elements.
+     */
+    public GenericClosedHashSet(float upperLoadFactor, float lowerLoadFactor,
+                                HashStrategy<? super E> strategy) {
+        super(upperLoadFactor, lowerLoadFactor, strategy);
+        values = new Object[capacity] ;
+        hashes = new int[capacity] ;
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Performs the given action on every element of the set (the set must not be changed by the action).
+     * @param action - the action to perform on each element.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        for ( Object value: values ) {
+            if (( value != null ) && ( value != DELETED )) {
+                action.accept((E) value);
+            }
+        }
+    }
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity.
+     * @param hashIndex -  the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int hashIndex) {
+        return hashIndex & ( capacity - 1 ) ;
+    }
+
+    /* looks for the value along its probing sequence. */
+    protected boolean isPresent(E value, int hash) {
+        return findValue(value, hash) != -1;
+    }
+
+    /* looks for the value along its probing sequence, and if it wasn't found, adds it to the first free cell
+     * on the way: either the first deleted cell, or the empty cell that ended the search. */
+    protected boolean insertIfAbsent(E value, int hash) {
+        int firstDeleted = -1;
+        for (int i = 0; i < capacity; i++) {
+            int index = findIndex(hash, i);
+            Object cell = values[index];
+            if ( cell == null ) {
+                insert(( firstDeleted == -1 ) ? index : firstDeleted, value, hash);
+                return true;
+            }
+            if ( cell == DELETED ) {
+                if ( firstDeleted == -1 ) {
+                    firstDeleted = index;
+                }
+            }
+            else if ( isEqual(index, value, hash) ) {
+                return false;
+            }
+        }
+        if ( firstDeleted != -1 ) {
+            insert(firstDeleted, value, hash);
+            return true;
+        }
+        return false;
+    }
+
+    /* looks for the value along its probing sequence, and marks its cell as deleted if it was found. */
+    protected boolean removeIfPresent(E value, int hash) {
+        int index = findValue(value, hash);
+        if ( index == -1 ) {
+            return false;
+        }
+        values[index] = DELETED;
+        numOfDeleted++;
+        return true;
+    }
+
+    /* sets the value of a free (empty or deleted) cell. */
+    private void insert(int index, E value, int hash) {
+        if ( values[index] == DELETED ) {
+            numOfDeleted--;
+        }
+        values[index] = value;
+        hashes[index] = hash;
+    }
+
+    /* returns -1 if the value wasn't found, else returns its index. The search stops at the first empty
+     * cell, since the value could not have been added after it. */
+    private int findValue(E value, int hash) {
+        for (int i = 0; i < capacity; i++) {
+            int index = findIndex(hash, i);
+            Object cell = values[index];
+            if ( cell == null ) {
+                return -1;
+            }
+            if (( cell != DELETED ) && isEqual(index, value, hash) ) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /* returns true if the (occupied) cell of the given index has the given value, comparing the values only
+     * if their hash codes match. */
+    @SuppressWarnings("unchecked")
+    private boolean isEqual(int index, E value, int hash) {
+        return ( hashes[index] == hash ) && strategy.isEqual((E) values[index], value);
+    }
+
+    /* calculates and returns the matching legal index in the hash set. */
+    private int findIndex(int hash, int i) {
+        return clamp(hash + ( i + i * i ) / 2);
+    }
+
+    /* Changes the capacity of the hash set and places the elements in the new table by their kept hash
+     * codes (the deleted cells are dropped). */
+    protected void resize(int newCapacity) {
+        capacity = newCapacity;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        for (int i = 0; i < oldValues.length; i++) {
+            if (( oldValues[i] != null ) && ( oldValues[i] != DELETED )) {
+                int j = 0;
+                int index = findIndex(oldHashes[i], j);
+                while ( values[index] != null ) {
+                    index = findIndex(oldHashes[i], ++j);
+                }
+                values[index] = oldValues[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+        numOfDeleted = 0;
+    }
+
+    /* Check if the current load factor exceeds the lower border, and if it does, then rehashes the hash set.
+     * Else, rehashes it with the same capacity if the deleted cells take too much of it. */
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
+            minimizeSet();
+        }
+        else if ( ((float) numOfDeleted) / capacity > deletedLoadFactor ) {
+            resize(capacity);
+        }
+    }
+
+    /* The deleted cells are counted as used cells, so that there are always empty cells to stop the searches.
+     * If the table is too full only because of them, it is rehashed with the same capacity. */
+    protected void reHashAfterAddition() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= upLoadFactor ) {
+            enlargeSet();
+        }
+        else if ( ((float) ( numOfElements + numOfDeleted )) / capacity >= upLoadFactor ) {
+            resize(capacity);
+        }
+    }
+
+    /* Minimize the capacity (size) of the hash set. */
+    private void minimizeSet() {
+        if ( capacity >= 2 ) {
+            resize(capacity / 2);
+        }
+    }
+
+    /* Enlarge the capacity (size) of the hash set. */
+    private void enlargeSet() {
+        resize(2 * capacity);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+/**
+ * An abstract class represents a hash set of elements of any type, that are hashed and compared by a
+ * HashStrategy. It follows the load factors and the resize policy of the String sets (SimpleHashSet), which
+ * stay specialized for strings.
+ * @param <E> the type of the elements.
+ * @author eden horka
+ */
+
+import java.util.function.Consumer;
+
+public abstract class GenericHashSet<E> extends BaseHashSet {
+
+    /* The strategy that hashes and compares the elements. */
+    protected HashStrategy<? super E> strategy ;
+
+    /**
+     * A default constructor of a generic hash set, with the elements' own hashCode() and equals().
+     */
+    public GenericHashSet() {
+        strategy = HashStrategy.natural() ;
+    }
+
+    /**
+     * Constructs a new generic hash set with the given load factors and strategy.
+     * @param upperLoadFactor the upper load factor before rehashing
+     * @param lowerLoadFactor the lower load factor before rehashing
+     * @param strategy the strategy that hashes and compares the elements (null for their own hashCode() and
+     *                 equals())
+     */
+    public GenericHashSet(float upperLoadFactor, float lowerLoadFactor, HashStrategy<? super E> strategy) {
+        super(upperLoadFactor, lowerLoadFactor);
+        this.strategy = ( strategy == null ) ? HashStrategy.natural() : strategy ;
+    }
+
+    /**
+     * Computes the hash code of a given element with the strategy of this set, and mixes its high bits into
+     * its low bits (that choose the cell), since strategies of other types than strings often give hash
+     * codes that differ only in their high bits.
+     * @param value - the element to hash (not null).
+     * @return the hash code of the element.
+     */
+    protected int hash(E value) {
+        int hash = strategy.hash(value) ;
+        return hash ^ ( hash >>> 16 ) ;
+    }
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False iff newValue already exists in the set (or is null)
+     */
+    public boolean add(E newValue) {
+        if (( newValue == null ) || ( ! insertIfAbsent(newValue, hash(newValue)) )) {
+            return false ;
+        }
+        elementAdded();
+        return true ;
+    }
+
+    /**
+     * Adds all the given values to the set (null and duplicate values are ignored).
+     * If the values are a collection, the table is enlarged once, up front, to fit all of them, and then each
+     * value is placed without further rehashing. Otherwise they are added one by one.
+     * @param values - the values to add.
+     * @return true iff at least one of the values was added to the set.
+     */
+    public boolean addAll(java.lang.Iterable<? extends E> values) {
+        if ( values == null ) {
+            return false ;
+        }
+        if ( ! ( values instanceof java.util.Collection ) ) {
+            boolean isChanged = false ;
+            for ( E value: values ) {
+                isChanged = add(value) || isChanged ;
+            }
+            return isChanged ;
+        }
+        ensureCapacity(numOfElements + ((java.util.Collection<? extends E>) values).size());
+        int oldNumOfElements = numOfElements ;
+        for ( E value: values ) {
+            if (( value != null ) && insertIfAbsent(value, hash(value)) ) {
+                numOfElements++ ;
+            }
+        }
+        return finishAddAll(oldNumOfElements) ;
+    }
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True iff searchVal is found in the set
+     */
+    public boolean contains(E searchVal) {
+        return ( searchVal != null ) && isPresent(searchVal, hash(searchVal)) ;
+    }
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True iff toDelete is found and deleted
+     */
+    public boolean delete(E toDelete) {
+        if (( toDelete == null ) || ( ! removeIfPresent(toDelete, hash(toDelete)) )) {
+            return false ;
+        }
+        elementDeleted();
+        return true ;
+    }
+
+    /**
+     * Performs the given action on every element of the set (the set must not be changed by the action).
+     * @param action - the action to perform on each element.
+     */
+    public abstract void forEach(Consumer<? super E> action);
+
+    /**
+     * Looks for a value in its chain (or probing sequence).
+     * @param value - the value to look for (not null).
+     * @param hash - the hash code of the value.
+     * @return true iff the value is in the table.
+     */
+    protected abstract boolean isPresent(E value, int hash);
+
+    /**
+     * Looks for a value in its chain (or probing sequence) in a single walk, and inserts it at the first
+     * free place if it is not found. Does not update the number of elements or rehash.
+     * @param value - the value to insert (not null).
+     * @param hash - the hash code of the value.
+     * @return true iff the value was not in the table and was inserted.
+     */
+    protected abstract boolean insertIfAbsent(E value, int hash);
+
+    /**
+     * Looks for a value in its chain (or probing sequence) in a single walk, and removes it if it is found.
+     * Does not update the number of elements or rehash.
+     * @param value - the value to remove (not null).
+     * @param hash - the hash code of the value.
+     * @return true iff the value was in the table and was removed.
+     */
+    protected abstract boolean removeIfPresent(E value, int hash);
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+/**
+ * This class represents a generic hash set of an open hashing model (like OpenHashSet), in which each cell of
+ * the table is a chain of the elements that are hashed to it.
+ * The elements are hashed and compared by a HashStrategy. A node of a chain keeps the hash code of its
+ * element, so a search compares elements only when their hash codes match, and a rehash moves the nodes to
+ * the new table without hashing the elements again.
+ * @param <E> the type of the elements.
+ * @author eden horka
+ */
+
+import java.util.function.Consumer;
+
+public class GenericOpenHashSet<E> extends GenericHashSet<E> {
+
+    /* The chains of the table (null for an empty cell). */
+    private Node<E>[] openHashSet ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of a generic open hash set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor, that hashes and
+     * compares the elements by their own hashCode() and equals().
+     */
+    public GenericOpenHashSet() {
+        openHashSet = newTable(capacity) ;
+    }
+
+    /**
+     * A constructor of a generic open hash set.
+     * Builds a new, empty table with the default initial capacity, upper and lower load factor, and the given
+     * strategy.
+     *
+     * @param strategy - The strategy that hashes and compares the elements.
+     */
+    public GenericOpenHashSet(HashStrategy<? super E> strategy) {
+        this(DEFAULT_HIGHER_CAPACITY, DEFAULT_LOWER_CAPACITY, strategy);
+    }
+
+    /**
+     * A constructor of a generic open hash set.
+     * Builds a new, empty table with the specified load factors and strategy, and the default initial
+     * capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param strategy - The strategy that hashes and compares the elements.
+     */
+    public GenericOpenHashSet(float upperLoadFactor, float lowerLoadFactor,
+                              HashStrategy<? super E> strategy) {
+        super(upperLoadFactor, lowerLoadFactor, strategy);
+        openHashSet = newTable(capacity) ;
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Performs the given action on every element of the set (the set must not be changed by the action).
+     * @param action - the action to perform on each element.
+     */
+    public void forEach(Consumer<? super E> action) {
+        for ( Node<E> node: openHashSet ) {
+            for (; node != null; node = node.next) {
+                action.accept(node.value);
+            }
+        }
+    }
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity.
+     * @param index -  the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int index) {
+        return index & ( capacity - 1 ) ;
+    }
+
+    /* looks for the value in its chain. */
+    protected boolean isPresent(E value, int hash) {
+        return findNode(openHashSet[clamp(hash)], value, hash) != null;
+    }
+
+    /* looks for the value in its chain, and if it wasn't found, adds it at the head of the chain. */
+    protected boolean insertIfAbsent(E value, int hash) {
+        int index = clamp(hash);
+        if ( findNode(openHashSet[index], value, hash) != null ) {
+            return false;
+        }
+        openHashSet[index] = new Node<E>(value, hash, openHashSet[index]);
+        return true;
+    }
+
+    /* looks for the value in its chain, and unlinks its node if it was found. */
+    protected boolean removeIfPresent(E value, int hash) {
+        int index = clamp(hash);
+        Node<E> previous = null;
+        for ( Node<E> node = openHashSet[index]; node != null; node = node.next ) {
+            if (( node.hash == hash ) && strategy.isEqual(node.value, value) ) {
+                if ( previous == null ) {
+                    openHashSet[index] = node.next;
+                }
+                else {
+                    previous.next = node.next;
+                }
+                return true;
+            }
+            previous = node;
+        }
+        return false;
+    }
+
+    /* returns the node of the value in the given chain, or null if it isn't there. */
+    private Node<E> findNode(Node<E> node, E value, int hash) {
+        for (; node != null; node = node.next) {
+            if (( node.hash == hash ) && strategy.isEqual(node.value, value) ) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /* Changes the capacity of the hash set and moves the nodes to the new table by their kept hash codes. */
+    protected void resize(int newCapacity) {
+        capacity = newCapacity;
+        Node<E>[] newHashSet = newTable(capacity);
+        for ( Node<E> node: openHashSet ) {
+            while ( node != null ) {
+                Node<E> next = node.next;
+                int index = clamp(node.hash);
+                node.next = newHashSet[index];
+                newHashSet[index] = node;
+                node = next;
+            }
+        }
+        openHashSet = newHashSet;
+    }
+
+    /* Check if the current load factor exceeds the lower border, and if it does, then rehashes the hash
+     * set. */
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
+            minimizeSet();
+        }
+    }
+
+    protected void reHashAfterAddition() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= upLoadFactor ) {
+            enlargeSet();
+        }
+    }
+
+    /* Minimize the capacity (size) of the hash set. */
+    private void minimizeSet() {
+        if ( capacity >= 2 ) {
+            resize(capacity / 2);
+        }
+    }
+
+    /* Enlarge the capacity (size) of the hash set. */
+    private void enlargeSet() {
+        resize(2 * capacity);
+    }
+
+    /* returns a new, empty table of the given capacity. */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E>[] newTable(int capacity) {
+        return (Node<E>[]) new Node<?>[capacity];
+    }
+
+    /* A node of a chain: an element, its hash code and the next node of the chain. */
+    private static final class Node<E> {
+
+        /* The element of the node. */
+        private final E value;
+
+        /* The hash code of the element. */
+        private final int hash;
+
+        /* The next node of the chain (null for the last one). */
+        private Node<E> next;
+
+        /* builds a node of the given element and hash code, before the given node. */
+        Node(E value, int hash, Node<E> next) {
+            this.value = value;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+/**
+ * A strategy for computing the hash code of a string that is stored in a simple hash set.
+ * @author eden horka
+ */
+
+public interface HashFunction {
+
+    /**
+     * Computes the hash code of a given string.
+     * @param value - the string to hash (not null).
+     * @return the hash code of the string.
+     */
+    int hash(java.lang.String value);
+}
@@ -0,0 +1,180 @@
+/**
+ * A snapshot of the statistics of a hash set: the histograms of the probe lengths of its searches (hits and
+ * misses), the histogram of the lengths of its chains, its deleted cells ("tombstones"), its rehashes and
+ * their cumulative time, and its load factor.
+ * The probes and the rehashes are recorded only when the JVM runs with -Dhashset.statistics=true. The flag
+ * is a static final field, so when it is off the JIT compiler drops the recording code altogether, and the
+ * histograms of a snapshot are all 0 (the chains, tombstones and load factor are read from the table when
+ * the snapshot is taken, so they are always there).
+ * A probe length is the number of cells (or entries of a chain) that a search compared. The histograms are
+ * indexed by length, and their last index counts every length from it and up.
+ * @author eden horka
+ */
+
+public class HashSetStatistics implements HashSetStatisticsMXBean {
+
+    /**
+     * true iff the probes and the rehashes of the hash sets are recorded (-Dhashset.statistics=true).
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("hashset.statistics") ;
+
+    /**
+     * The last index of the histograms (it counts every length from it and up).
+     */
+    public static final int MAX_LENGTH = 32 ;
+
+    /* The histogram of the probe lengths of the searches that found their value. */
+    private final long[] hitProbes ;
+
+    /* The histogram of the probe lengths of the searches that didn't find their value. */
+    private final long[] missProbes ;
+
+    /* The histogram of the lengths of the chains (buckets, or clusters of used cells). */
+    private final long[] chainLengths ;
+
+    /* The number of deleted cells. */
+    private final int numOfTombstones ;
+
+    /* The number of rehashes. */
+    private final long rehashCount ;
+
+    /* The cumulative time of the rehashes, in nanoseconds. */
+    private final long rehashTime ;
+
+    /* The number of elements. */
+    private final int size ;
+
+    /* The capacity of the table. */
+    private final int capacity ;
+
+
+    /* ===== Constructors: ==== */
+
+    /* builds a snapshot of the given statistics (the arrays are kept, not copied). */
+    HashSetStatistics(long[] hitProbes, long[] missProbes, long[] chainLengths, int numOfTombstones,
+                      long rehashCount, long rehashTime, int size, int capacity) {
+        this.hitProbes = hitProbes ;
+        this.missProbes = missProbes ;
+        this.chainLengths = chainLengths ;
+        this.numOfTombstones = numOfTombstones ;
+        this.rehashCount = rehashCount ;
+        this.rehashTime = rehashTime ;
+        this.size = size ;
+        this.capacity = capacity ;
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * @return the histogram of the probe lengths of the searches that found their value.
+     */
+    public long[] getHitProbes() {
+        return hitProbes.clone() ;
+    }
+
+    /**
+     * @return the histogram of the probe lengths of the searches that didn't find their value.
+     */
+    public long[] getMissProbes() {
+        return missProbes.clone() ;
+    }
+
+    /**
+     * @return the histogram of the lengths of the chains: the sizes of the buckets of an open hash set
+     * (including the empty ones), or the lengths of the clusters of used (occupied or deleted) cells of a
+     * closed hash set.
+     */
+    public long[] getChainLengths() {
+        return chainLengths.clone() ;
+    }
+
+    /**
+     * @return the average probe length of the searches that found their value (0 if there were none).
+     */
+    public double getAverageHitProbes() {
+        return average(hitProbes) ;
+    }
+
+    /**
+     * @return the average probe length of the searches that didn't find their value (0 if there were none).
+     */
+    public double getAverageMissProbes() {
+        return average(missProbes) ;
+    }
+
+    /**
+     * @return the number of deleted cells ("tombstones") in the table (0 for a table without them).
+     */
+    public int getTombstones() {
+        return numOfTombstones ;
+    }
+
+    /**
+     * @return the number of rehashes (resizes, and cleanups of deleted cells).
+     */
+    public long getRehashCount() {
+        return rehashCount ;
+    }
+
+    /**
+     * @return the cumulative time of the rehashes, in nanoseconds.
+     */
+    public long getRehashTimeNanos() {
+        return rehashTime ;
+    }
+
+    /**
+     * @return the number of elements of the set.
+     */
+    public int getSize() {
+        return size ;
+    }
+
+    /**
+     * @return the capacity of the table.
+     */
+    public int getCapacity() {
+        return capacity ;
+    }
+
+    /**
+     * @return the load factor of the table (the number of elements divided by the capacity).
+     */
+    public float getLoadFactor() {
+        return ((float) size ) / Math.max(1, capacity) ;
+    }
+
+    /**
+     * @return a summary of the statistics: the size, capacity and load factor, the average probe lengths,
+     * the longest chain, the tombstones and the rehashes.
+     */
+    public String toString() {
+        return "size " + size + ", capacity " + capacity + ", load factor " + getLoadFactor()
+                + ", probes per hit " + getAverageHitProbes() + ", probes per miss " + getAverageMissProbes()
+                + ", longest chain " + longest(chainLengths) + ", tombstones " + numOfTombstones
+                + ", rehashes " + rehashCount + " (" + rehashTime / 1000000 + " ms)" ;
+    }
+
+    /* returns the average length of a histogram (0 if it is empty), counting the lengths from the last index
+     * up as the last index. */
+    private static double average(long[] histogram) {
+        long count = 0 ;
+        long sum = 0 ;
+        for (int length = 0; length < histogram.length; length++) {
+            count += histogram[length] ;
+            sum += length * histogram[length] ;
+        }
+        return ( count == 0 ) ? 0 : ((double) sum ) / count ;
+    }
+
+    /* returns the longest length of a histogram (the last index means that length or more). */
+    private static int longest(long[] histogram) {
+        for (int length = histogram.length - 1; length > 0; length--) {
+            if ( histogram[length] != 0 ) {
+                return length ;
+            }
+        }
+        return 0 ;
+    }
+}
\ No newline at end of file
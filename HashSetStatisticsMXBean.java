@@ -0,0 +1,64 @@
+/**
+ * The management interface of the statistics of a hash set (see HashSetStatistics), registered in the
+ * platform MBean server by SimpleHashSet.registerStatistics(). Every attribute is read from a new snapshot of
+ * the statistics.
+ * @author eden horka
+ */
+
+public interface HashSetStatisticsMXBean {
+
+    /**
+     * @return the histogram of the probe lengths of the searches that found their value.
+     */
+    long[] getHitProbes();
+
+    /**
+     * @return the histogram of the probe lengths of the searches that didn't find their value.
+     */
+    long[] getMissProbes();
+
+    /**
+     * @return the histogram of the lengths of the chains (buckets, or clusters of used cells).
+     */
+    long[] getChainLengths();
+
+    /**
+     * @return the average probe length of the searches that found their value.
+     */
+    double getAverageHitProbes();
+
+    /**
+     * @return the average probe length of the searches that didn't find their value.
+     */
+    double getAverageMissProbes();
+
+    /**
+     * @return the number of deleted cells in the table.
+     */
+    int getTombstones();
+
+    /**
+     * @return the number of rehashes.
+     */
+    long getRehashCount();
+
+    /**
+     * @return the cumulative time of the rehashes, in nanoseconds.
+     */
+    long getRehashTimeNanos();
+
+    /**
+     * @return the number of elements of the set.
+     */
+    int getSize();
+
+    /**
+     * @return the capacity of the table.
+     */
+    int getCapacity();
+
+    /**
+     * @return the load factor of the table.
+     */
+    float getLoadFactor();
+}
\ No newline at end of file
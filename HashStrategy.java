@@ -0,0 +1,88 @@
+/**
+ * A strategy for computing the hash codes of the elements of a generic hash set, and for comparing them,
+ * in place of the elements' own hashCode() and equals(). For example, an identity strategy for keys that are
+ * equal only to themselves, or a strategy that reads a hash code that was computed once and kept in the key.
+ * @param <E> the type of the elements.
+ * @author eden horka
+ */
+
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+public interface HashStrategy<E> {
+
+    /**
+     * Computes the hash code of a given element (equal elements must have the same hash code).
+     * @param value - the element to hash (not null).
+     * @return the hash code of the element.
+     */
+    int hash(E value);
+
+    /**
+     * Checks if two elements are equal.
+     * @param value1 - an element (not null).
+     * @param value2 - another element (not null).
+     * @return true iff the elements are equal.
+     */
+    boolean isEqual(E value1, E value2);
+
+    /**
+     * @param <E> the type of the elements.
+     * @return a strategy that uses the elements' own hashCode() and equals().
+     */
+    static <E> HashStrategy<E> natural() {
+        return new HashStrategy<E>() {
+            public int hash(E value) {
+                return value.hashCode() ;
+            }
+
+            public boolean isEqual(E value1, E value2) {
+                return value1.equals(value2) ;
+            }
+        };
+    }
+
+    /**
+     * @param <E> the type of the elements.
+     * @return a strategy in which every element is equal only to itself (the same object), and is hashed by
+     * System.identityHashCode().
+     */
+    static <E> HashStrategy<E> identity() {
+        return new HashStrategy<E>() {
+            public int hash(E value) {
+                return System.identityHashCode(value) ;
+            }
+
+            public boolean isEqual(E value1, E value2) {
+                return value1 == value2 ;
+            }
+        };
+    }
+
+    /**
+     * @param hash - computes the hash code of an element (for example, reads a precomputed hash code).
+     * @param isEqual - checks if two elements are equal.
+     * @param <E> the type of the elements.
+     * @return a strategy of the given functions.
+     */
+    static <E> HashStrategy<E> of(ToIntFunction<? super E> hash, BiPredicate<? super E, ? super E> isEqual) {
+        return new HashStrategy<E>() {
+            public int hash(E value) {
+                return hash.applyAsInt(value) ;
+            }
+
+            public boolean isEqual(E value1, E value2) {
+                return isEqual.test(value1, value2) ;
+            }
+        };
+    }
+
+    /**
+     * @param hashFunction - the hash function of the strings (as in the String sets).
+     * @return a strategy for strings, that hashes them by the given hash function and compares them by
+     * equals().
+     */
+    static HashStrategy<java.lang.String> of(HashFunction hashFunction) {
+        return of(hashFunction::hash, java.lang.String::equals) ;
+    }
+}
\ No newline at end of file
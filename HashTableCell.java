@@ -1,32 +1,48 @@
 /**
  * A class represents a cell in an closed hash table ( can only contain one string) .
- * Each cell has a value (String) and a boolean that indicates whether the cell is deleted/empty.
+ * Each cell has a value (String) and a state: empty (the cell was never used), occupied (the cell contains a
+ * value) or deleted (the cell contained a value that was deleted).
+ * An occupied cell also keeps the full hash code of its value, so a probe compares strings only when their
+ * hash codes match, and a rehash does not hash the values again.
+ * A search for a value may stop at an empty cell, but must continue past a deleted one.
  * @author eden horka
  */
 
 public class HashTableCell{
 
-    /* the value that was/in the cell. */
+    /*== The states of a cell: ==*/
+    private static final byte EMPTY = 0 ;
+
+    private static final byte OCCUPIED = 1 ;
+
+    private static final byte DELETED = 2 ;
+
+    /* the value that is in the cell (null if the cell is not occupied). */
     private java.lang.String value;
 
-    /* true if this cell is a deleted cell, false otherwise. */
-    private boolean isDeleted;
+    /* the hash code of the value that is in the cell. */
+    private int hash;
+
+    /* the state of the cell. */
+    private byte state;
 
     /**
      * A default constructor of a hash table cell.
      */
     public HashTableCell() {
-        isDeleted = true  ;
+        state = EMPTY  ;
     }
 
     /**
      * Sets a new value for this cell.
      * @param newValue - a new value to set.
+     * @param newHash - the hash code of the new value.
      */
-    public void setValue(java.lang.String newValue) {
+    public void setValue(java.lang.String newValue, int newHash) {
         if ( newValue != null ) {
             value = newValue ;
-            isDeleted = false ;
+            hash = newHash ;
+            state = OCCUPIED ;
         }
     }
 
@@ -34,7 +50,8 @@ public class HashTableCell{
      * delete this cell's value.
      */
     public void delete() {
-        isDeleted = true ;
+        value = null ;
+        state = DELETED ;
     }
 
     /**
@@ -45,9 +62,40 @@ public class HashTableCell{
     }
 
     /**
-     * @return true if this cell is empty (deleted), false otherwise.
+     * @return the hash code of the value of this cell.
+     */
+    public int getHash() {
+        return hash ;
+    }
+
+    /**
+     * Checks if this cell contains the given value, comparing the strings only if the hash codes match.
+     * @param searchVal - the value to look for.
+     * @param searchHash - the hash code of the value.
+     * @return true if this cell contains the value, false otherwise.
+     */
+    public boolean holds(java.lang.String searchVal, int searchHash) {
+        return ( state == OCCUPIED ) && ( hash == searchHash ) && value.equals(searchVal) ;
+    }
+
+    /**
+     * @return true if this cell was never used, false otherwise.
+     */
+    public boolean isEmpty() {
+        return state == EMPTY ;
+    }
+
+    /**
+     * @return true if this cell's value was deleted, false otherwise.
      */
     public boolean isDeleted() {
-        return isDeleted ;
+        return state == DELETED ;
+    }
+
+    /**
+     * @return true if this cell contains a value, false otherwise.
+     */
+    public boolean isOccupied() {
+        return state == OCCUPIED ;
     }
 }
\ No newline at end of file
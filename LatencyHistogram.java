@@ -0,0 +1,146 @@
+/**
+ * A histogram of latencies in nanoseconds, in the spirit of HdrHistogram: the values below 256 are counted
+ * exactly, and every higher power of two is split into 128 buckets of equal width, so a value is counted with
+ * a relative error below 1% (2 significant digits) in a fixed array of counts, whatever its size.
+ * Recording a value is a few shifts and an increment, with no allocation, so every operation of a benchmark
+ * can be recorded. A histogram is not thread safe: every thread records into its own histogram, and the
+ * histograms are merged once the threads finish.
+ * @author eden horka
+ */
+
+public class LatencyHistogram {
+
+    /* The number of bits of the buckets of a power of two (so every power of two has 2^SUB_BUCKET_BITS
+     * buckets). */
+    private static final int SUB_BUCKET_BITS = 7 ;
+
+    /* The number of buckets of a power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS ;
+
+    /* The number of buckets (enough for any non negative long). */
+    private static final int NUM_OF_BUCKETS = ( Long.SIZE - SUB_BUCKET_BITS ) * SUB_BUCKETS + SUB_BUCKETS ;
+
+    /* The count of every bucket. */
+    private final long[] counts = new long[NUM_OF_BUCKETS] ;
+
+    /* The number of recorded values. */
+    private long totalCount ;
+
+    /* The sum of the recorded values. */
+    private long sum ;
+
+    /* The highest recorded value. */
+    private long maxValue ;
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Records a value.
+     * @param value - the value to record, in nanoseconds (a negative value is recorded as 0).
+     */
+    public void record(long value) {
+        if ( value < 0 ) {
+            value = 0 ;
+        }
+        counts[bucketOf(value)]++ ;
+        totalCount++ ;
+        sum += value ;
+        if ( value > maxValue ) {
+            maxValue = value ;
+        }
+    }
+
+    /**
+     * Adds the values of another histogram to this one.
+     * @param other - the histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+            counts[i] += other.counts[i] ;
+        }
+        totalCount += other.totalCount ;
+        sum += other.sum ;
+        maxValue = Math.max(maxValue, other.maxValue) ;
+    }
+
+    /**
+     * Removes all the recorded values.
+     */
+    public void reset() {
+        java.util.Arrays.fill(counts, 0) ;
+        totalCount = 0 ;
+        sum = 0 ;
+        maxValue = 0 ;
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long totalCount() {
+        return totalCount ;
+    }
+
+    /**
+     * @return the highest recorded value (0 if there are none).
+     */
+    public long maxValue() {
+        return maxValue ;
+    }
+
+    /**
+     * @return the average of the recorded values (0 if there are none).
+     */
+    public double mean() {
+        return ( totalCount == 0 ) ? 0 : ((double) sum ) / totalCount ;
+    }
+
+    /**
+     * @param percentile - a percentile between 0 and 100.
+     * @return the value of the given percentile: the highest value of the bucket that holds it (but no more
+     * than the highest recorded value), or 0 if there are no values.
+     */
+    public long valueAtPercentile(double percentile) {
+        if ( totalCount == 0 ) {
+            return 0 ;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * totalCount)) ;
+        long seen = 0 ;
+        for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+            seen += counts[i] ;
+            if ( seen >= rank ) {
+                return Math.min(highestValueOf(i), maxValue) ;
+            }
+        }
+        return maxValue ;
+    }
+
+    /**
+     * @return the number of values, and the p50, p90, p99, p99.9 and highest values in nanoseconds.
+     */
+    public String toString() {
+        return totalCount + " ops, p50 " + valueAtPercentile(50) + " ns, p90 " + valueAtPercentile(90)
+                + " ns, p99 " + valueAtPercentile(99) + " ns, p99.9 " + valueAtPercentile(99.9) + " ns, max "
+                + maxValue + " ns" ;
+    }
+
+    /* returns the bucket of a non negative value: the value itself below 2 * SUB_BUCKETS, else the bucket of
+     * its power of two (its highest bit), and of its next SUB_BUCKET_BITS bits in it. */
+    private static int bucketOf(long value) {
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1 ;
+        if ( shift <= 0 ) {
+            return (int) value ;
+        }
+        return shift * SUB_BUCKETS + (int) ( value >>> shift ) ;
+    }
+
+    /* returns the highest value that is counted in the given bucket. */
+    private static long highestValueOf(int bucket) {
+        int shift = bucket / SUB_BUCKETS - 1 ;
+        if ( shift <= 0 ) {
+            return bucket ;
+        }
+        long subBucket = bucket - (long) shift * SUB_BUCKETS ;
+        return (( subBucket + 1 ) << shift ) - 1 ;
+    }
+}
\ No newline at end of file
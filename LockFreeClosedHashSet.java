@@ -0,0 +1,415 @@
+/**
+ * This class represents a thread safe hash set of a closed hashing model (like ClosedHashSet), that never
+ * locks (in the style of Cliff Click's non-blocking hash table).
+ * Each cell has a key and a state, both changed only by compare-and-set. A key is set once (a deleted value
+ * keeps its key, so adding it again reuses the cell), and the state of the cell says if the value is in the
+ * set. The cells are probed linearly.
+ * contains() is wait-free: it only reads, and never waits for or helps other threads.
+ * A resize is done cooperatively: the new array is published next to the old one, every thread that adds or
+ * deletes copies a chunk of cells to it, and a cell that is copied is frozen first, so a change that reaches
+ * a frozen cell copies it by itself and is done in the new array. When all the cells are copied, the new
+ * array replaces the old one. The array is rebuilt only by additions, so it shrinks below the lower load
+ * factor (and drops the keys of deleted values) on the next resize.
+ * @author eden horka
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LockFreeClosedHashSet implements SimpleSet {
+
+    /* The number of probes after which a search goes on to the next array (or an addition resizes the
+     * array): 10 plus a quarter of the capacity. */
+    private static final int MIN_REPROBE_LIMIT = 10 ;
+
+    /* The maximal number of cells copied by a thread at once during a resize. */
+    private static final int COPY_CHUNK = 1024 ;
+
+    /* The key of a cell that was empty when it was copied (no value can be added to it any more). */
+    private static final java.lang.String FROZEN_KEY = new java.lang.String("frozen") ;
+
+    /*== The states of a cell: ==*/
+    /* A cell whose key was set, but whose value was never added (in this array). */
+    private static final int EMPTY = 0 ;
+
+    /* A cell whose value was deleted. */
+    private static final int ABSENT = 1 ;
+
+    /* A cell whose value is in the set. */
+    private static final int PRESENT = 2 ;
+
+    /* A cell that was copied to the next array (or had no value to copy). */
+    private static final int FROZEN_ABSENT = 3 ;
+
+    /* A cell whose value is in the set, and that is being copied to the next array. */
+    private static final int FROZEN_PRESENT = 4 ;
+
+    /*== The results of a search in an array: ==*/
+    /* The array has no information about the value (an older array, if any, has it). */
+    private static final int UNKNOWN = -1 ;
+
+    private static final int NOT_FOUND = 0 ;
+
+    private static final int FOUND = 1 ;
+
+    /* The current array of cells. */
+    private final AtomicReference<Table> top ;
+
+    /* The number of elements in the set. */
+    private final LongAdder numOfElements = new LongAdder() ;
+
+    /* The lower load factor of the hash table. */
+    private final float lowLoadFactor ;
+
+    /* The upper load factor of the hash table. */
+    private final float upLoadFactor ;
+
+    /* The hash function that maps the strings to the cells of the hash table. */
+    private final HashFunction hashFunction ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of a lock free closed hash set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor.
+     */
+    public LockFreeClosedHashSet() {
+        this(SimpleHashSet.DEFAULT_HIGHER_CAPACITY, SimpleHashSet.DEFAULT_LOWER_CAPACITY);
+    }
+
+    /**
+     * A constructor of a lock free closed hash set.
+     * Builds a new, empty table with the specified load factors, and the default initial capacity.
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     */
+    public LockFreeClosedHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        this(upperLoadFactor, lowerLoadFactor, SimpleHashSet.DEFAULT_HASH_FUNCTION);
+    }
+
+    /**
+     * A constructor of a lock free closed hash set.
+     * Builds a new, empty table with the specified load factors and hash function, and the default initial
+     * capacity.
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     */
+    public LockFreeClosedHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction) {
+        upLoadFactor = upperLoadFactor ;
+        lowLoadFactor = lowerLoadFactor ;
+        this.hashFunction = ( hashFunction == null ) ? SimpleHashSet.DEFAULT_HASH_FUNCTION : hashFunction ;
+        top = new AtomicReference<>(new Table(SimpleHashSet.INITIAL_CAPACITY));
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue New value to add to the set
+     * @return False iff newValue already exists in the set
+     */
+    public boolean add(java.lang.String newValue) {
+        if ( newValue == null ) {
+            return false ;
+        }
+        return write(top.get(), newValue, BaseHashSet.spread(hashFunction.hash(newValue)), PRESENT) ;
+    }
+
+    /**
+     * Look for a specified value in the set.
+     * Wait-free: never locks, never writes and never retries.
+     * @param searchVal Value to search for
+     * @return True iff searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        if ( searchVal == null ) {
+            return false ;
+        }
+        return find(top.get(), searchVal, BaseHashSet.spread(hashFunction.hash(searchVal))) == FOUND ;
+    }
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete Value to delete
+     * @return True iff toDelete is found and deleted
+     */
+    public boolean delete(java.lang.String toDelete) {
+        if ( toDelete == null ) {
+            return false ;
+        }
+        return write(top.get(), toDelete, BaseHashSet.spread(hashFunction.hash(toDelete)), ABSENT) ;
+    }
+
+    /**
+     * While other threads add or delete elements, the result may not include their latest changes.
+     * @return The number of elements currently in the set
+     */
+    public int size() {
+        return numOfElements.intValue() ;
+    }
+
+    /**
+     * @return The current capacity (number of cells) of the table.
+     */
+    public int capacity() {
+        return top.get().length ;
+    }
+
+    /* returns FOUND or NOT_FOUND if the given array (or a newer one) knows if the value is in the set, and
+     * UNKNOWN if the value was never written to them. */
+    private int find(Table table, java.lang.String value, int hash) {
+        int index = hash & ( table.length - 1 ) ;
+        int reprobeLimit = reprobeLimit(table.length) ;
+        for (int reprobes = 0; reprobes < reprobeLimit; reprobes++) {
+            java.lang.String key = table.keys.get(index) ;
+            if ( key == null ) {
+                // every change of the value would have set this key on its way
+                return UNKNOWN ;
+            }
+            if ( key == FROZEN_KEY ) {
+                break ;
+            }
+            if ( key.equals(value) ) {
+                int state = table.states.get(index) ;
+                if ( state == PRESENT ) {
+                    return FOUND ;
+                }
+                if ( state == ABSENT ) {
+                    return NOT_FOUND ;
+                }
+                if ( state == EMPTY ) {
+                    return UNKNOWN ;
+                }
+                // a frozen cell holds the value until the next array has one
+                int newer = find(table.next.get(), value, hash) ;
+                if ( newer != UNKNOWN ) {
+                    return newer ;
+                }
+                return ( state == FROZEN_PRESENT ) ? FOUND : NOT_FOUND ;
+            }
+            index = ( index + 1 ) & ( table.length - 1 ) ;
+        }
+        Table next = table.next.get() ;
+        return ( next == null ) ? UNKNOWN : find(next, value, hash) ;
+    }
+
+    /* sets the state of the value to PRESENT or ABSENT (or, when it is copied, to PRESENT only if the
+     * value was never written to the array), starting from the given array. Returns true iff the state was
+     * changed. */
+    private boolean write(Table table, java.lang.String value, int hash, int newState) {
+        while ( true ) {
+            int index = hash & ( table.length - 1 ) ;
+            int reprobeLimit = reprobeLimit(table.length) ;
+            int reprobes = 0 ;
+            java.lang.String key ;
+            while ( true ) {
+                key = table.keys.get(index) ;
+                if ( key == null ) {
+                    if ( newState == ABSENT ) {
+                        // the value was never added (see find)
+                        return false ;
+                    }
+                    if ( table.keys.compareAndSet(index, null, value) ) {
+                        table.usedCells.increment();
+                        if ( table.usedCells.sum() >= upLoadFactor * table.length ) {
+                            resize(table, false);
+                        }
+                        key = value ;
+                        break ;
+                    }
+                    key = table.keys.get(index) ;
+                }
+                if (( key != FROZEN_KEY ) && key.equals(value)) {
+                    break ;
+                }
+                if (( key == FROZEN_KEY ) || ( ++reprobes >= reprobeLimit )) {
+                    key = null ;
+                    break ;
+                }
+                index = ( index + 1 ) & ( table.length - 1 ) ;
+            }
+            if ( key == null ) {
+                // no cell for the value in this array: it is either in a newer array, or the array is too
+                // crowded around its home cell
+                if (( newState == ABSENT ) && ( table.next.get() == null )) {
+                    return false ;
+                }
+                table = resize(table, true) ;
+                if ( newState != FROZEN_PRESENT ) {
+                    helpCopy();
+                }
+                continue ;
+            }
+            if ( table.next.get() != null ) {
+                // a resize is going on: the change is done in the next array
+                table = copyCell(table, index) ;
+                if ( newState != FROZEN_PRESENT ) {
+                    helpCopy();
+                }
+                continue ;
+            }
+            int state = table.states.get(index) ;
+            while ( state < FROZEN_ABSENT ) {
+                boolean unchanged = ( newState == FROZEN_PRESENT ) ? ( state != EMPTY )
+                        : (( state == PRESENT ) == ( newState == PRESENT )) ;
+                if ( unchanged ) {
+                    return false ;
+                }
+                int toSet = ( newState == ABSENT ) ? ABSENT : PRESENT ;
+                if ( table.states.compareAndSet(index, state, toSet) ) {
+                    if ( newState == PRESENT ) {
+                        numOfElements.increment();
+                    }
+                    else if ( newState == ABSENT ) {
+                        numOfElements.decrement();
+                    }
+                    return true ;
+                }
+                state = table.states.get(index) ;
+            }
+            // the cell was frozen by a resize since it was read
+            table = copyCell(table, index) ;
+        }
+    }
+
+    /* returns the next array of the given array, and publishes a new one if there is none. Its capacity
+     * keeps the elements between the load factors (the deleted cells are dropped), and is doubled if the
+     * array is too crowded (too many probes). A crowded array is never shrunk: its values may need more
+     * probes than the load factors allow for (colliding hash codes), and only a longer array (with a higher
+     * reprobe limit) has room for them. */
+    private Table resize(Table table, boolean crowded) {
+        Table next = table.next.get() ;
+        if ( next != null ) {
+            return next ;
+        }
+        int live = size() ;
+        int newCapacity = table.length ;
+        if ( crowded && ( newCapacity < SimpleHashSet.MAX_CAPACITY )) {
+            newCapacity = 2 * newCapacity ;
+        }
+        while (( live > newCapacity * upLoadFactor / 2 ) && ( newCapacity < SimpleHashSet.MAX_CAPACITY )) {
+            newCapacity = 2 * newCapacity ;
+        }
+        while ( !crowded && ( newCapacity > SimpleHashSet.INITIAL_CAPACITY )
+                && ( live < newCapacity * lowLoadFactor )
+                && ( live <= newCapacity * upLoadFactor / 4 )) {
+            newCapacity = newCapacity / 2 ;
+        }
+        table.next.compareAndSet(null, new Table(newCapacity));
+        return table.next.get() ;
+    }
+
+    /* copies a chunk of cells of the current array, if it is being resized. A thread that finds no chunk
+     * left to take copies the rest of the array by itself, so a resize ends even if a thread that took a
+     * chunk is stalled. */
+    private void helpCopy() {
+        Table table = top.get() ;
+        if ( table.next.get() == null ) {
+            return ;
+        }
+        int length = table.length ;
+        int chunk = Math.min(COPY_CHUNK, length) ;
+        int start = table.copyIndex.getAndAdd(chunk) ;
+        boolean claimed = ( start >>> 1 ) < length ;
+        int from = claimed ? ( start & ( length - 1 )) : 0 ;
+        int to = claimed ? ( from + chunk ) : length ;
+        int copied = 0 ;
+        for (int i = from; ( i < to ) && ( table.copiedCells.get() < length ); i++) {
+            if ( freezeAndCopy(table, i) ) {
+                copied++ ;
+            }
+        }
+        finishCopy(table, copied);
+    }
+
+    /* copies a single cell of the given array and returns the next array. */
+    private Table copyCell(Table table, int index) {
+        finishCopy(table, freezeAndCopy(table, index) ? 1 : 0);
+        return table.next.get() ;
+    }
+
+    /* counts the given number of copied cells, and replaces the array by its next one when all of them are
+     * copied. */
+    private void finishCopy(Table table, int copied) {
+        int copiedCells = ( copied == 0 ) ? table.copiedCells.get() : table.copiedCells.addAndGet(copied) ;
+        if ( copiedCells == table.length ) {
+            top.compareAndSet(table, table.next.get());
+        }
+    }
+
+    /* freezes the given cell, copies its value to the next array and marks it as copied. Returns true iff
+     * this thread was the one to finish the copy of the cell (so each cell is counted once). */
+    private boolean freezeAndCopy(Table table, int index) {
+        java.lang.String key = table.keys.get(index) ;
+        if ( key == null ) {
+            if ( table.keys.compareAndSet(index, null, FROZEN_KEY) ) {
+                return true ;
+            }
+            key = table.keys.get(index) ;
+        }
+        if ( key == FROZEN_KEY ) {
+            return false ;
+        }
+        int state = table.states.get(index) ;
+        while ( state < FROZEN_ABSENT ) {
+            int frozen = ( state == PRESENT ) ? FROZEN_PRESENT : FROZEN_ABSENT ;
+            if ( table.states.compareAndSet(index, state, frozen) ) {
+                if ( frozen == FROZEN_ABSENT ) {
+                    return true ;
+                }
+                state = frozen ;
+                break ;
+            }
+            state = table.states.get(index) ;
+        }
+        if ( state == FROZEN_ABSENT ) {
+            return false ;
+        }
+        // the value is added to the next array only if no newer change was made there
+        write(table.next.get(), key, BaseHashSet.spread(hashFunction.hash(key)), FROZEN_PRESENT);
+        return table.states.compareAndSet(index, FROZEN_PRESENT, FROZEN_ABSENT) ;
+    }
+
+    /* returns the number of probes after which a search in an array of the given length gives up. */
+    private static int reprobeLimit(int length) {
+        return Math.min(length, MIN_REPROBE_LIMIT + ( length >> 2 )) ;
+    }
+
+
+    /* An array of cells, and the progress of its copy to the next array. */
+    private static final class Table {
+
+        /* The keys of the cells (null for a cell that was never used). */
+        final AtomicReferenceArray<java.lang.String> keys ;
+
+        /* The states of the cells. */
+        final AtomicIntegerArray states ;
+
+        /* The number of cells in the array (a power of 2). */
+        final int length ;
+
+        /* The number of cells whose key was set. */
+        final LongAdder usedCells = new LongAdder() ;
+
+        /* The array that this array is being copied to (null if it isn't resized). */
+        final AtomicReference<Table> next = new AtomicReference<>() ;
+
+        /* The index of the next chunk of cells to copy. */
+        final AtomicInteger copyIndex = new AtomicInteger() ;
+
+        /* The number of cells that were copied. */
+        final AtomicInteger copiedCells = new AtomicInteger() ;
+
+        Table(int length) {
+            this.length = length ;
+            keys = new AtomicReferenceArray<>(length);
+            states = new AtomicIntegerArray(length);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,290 @@
+/**
+ * This class represents a hash set of longs, of a closed hashing model, that keeps its values as
+ * primitives in a single flat array (no boxing, no String and no cell object per element).
+ * A value is probed linearly from its home cell (after its bits are mixed, so sequential ids don't form
+ * long clusters). The value 0 marks an empty cell, so the value 0 itself is kept in a flag beside the table.
+ * Deletion shifts the following cells of the cluster back, so there are no deleted cells.
+ * The set follows the load factors and the resize policy of the other hash sets. Its SimpleSet methods take
+ * the canonical decimal representation of a long ("42", as Long.toString() writes it), and any other
+ * string ("042", "+42", "-0" or "4x") is never in the set.
+ * @author eden horka
+ */
+
+import java.util.function.LongConsumer;
+
+public class LongHashSet extends SimpleHashSet {
+
+    /* The cells of the table (0 for an empty cell). */
+    private long[] cells ;
+
+    /* True if the value 0 is in the set. */
+    private boolean hasZero ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of a long hash set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor.
+     */
+    public LongHashSet() {
+        cells = new long[capacity] ;
+    }
+
+    /**
+     * A constructor of a long hash set.
+     * Builds a new, empty table with the specified load factors, and the default initial capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     */
+    public LongHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+        cells = new long[capacity] ;
+    }
+
+    /**
+     * A constructor of a long hash set.
+     * Builds the hash set with the given elements (duplicate values should be ignored).
+     * The table is allocated once, with a capacity that fits all the elements.
+     * The new table has the default load factors.
+     *
+     * @param data - Values to add to the set.
+     */
+    public LongHashSet(long[] data) {
+        setInitialCapacity(data.length);
+        cells = new long[capacity] ;
+        addAll(data);
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Add a specified element to the set if it's not already in it.
+     * @param newValue - New value to add to the set.
+     * @return False iff newValue already exists in the set.
+     */
+    public boolean add(long newValue) {
+        if ( ! insertIfAbsent(newValue) ) {
+            return false;
+        }
+        elementAdded();
+        return true;
+    }
+
+    /**
+     * Adds all the given values to the set (duplicate values are ignored). The table is enlarged once, up
+     * front, to fit all the values.
+     * @param values - the values to add.
+     * @return true iff at least one of the values was added to the set.
+     */
+    public boolean addAll(long[] values) {
+        ensureCapacity(numOfElements + values.length);
+        boolean isChanged = false;
+        for ( long value: values ) {
+            isChanged = add(value) || isChanged;
+        }
+        return isChanged;
+    }
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal - Value to search for.
+     * @return True iff searchVal is found in the set.
+     */
+    public boolean contains(long searchVal) {
+        if ( searchVal == 0 ) {
+            return hasZero;
+        }
+        return findValue(searchVal) != -1;
+    }
+
+    /**
+     * Remove the input element from the set.
+     * @param toDelete - Value to delete.
+     * @return True iff toDelete is found and deleted.
+     */
+    public boolean delete(long toDelete) {
+        if ( ! removeIfPresent(toDelete) ) {
+            return false;
+        }
+        elementDeleted();
+        return true;
+    }
+
+    /**
+     * Performs the given action on every value of the set (the set must not be changed by the action).
+     * @param action - the action to perform on each value.
+     */
+    public void forEach(LongConsumer action) {
+        if ( hasZero ) {
+            action.accept(0L);
+        }
+        for ( long cell: cells ) {
+            if ( cell != 0 ) {
+                action.accept(cell);
+            }
+        }
+    }
+
+    /**
+     * @return a new array of the values of the set (in no particular order).
+     */
+    public long[] toArray() {
+        long[] values = new long[numOfElements];
+        int[] numOfValues = new int[1];
+        forEach(value -> values[numOfValues[0]++] = value);
+        return values;
+    }
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal - the canonical decimal representation of the value to search for.
+     * @return True iff searchVal is a long that is found in the set.
+     */
+    public boolean contains(java.lang.String searchVal) {
+        try {
+            return IntHashSet.isCanonicalDecimal(searchVal) && contains(Long.parseLong(searchVal));
+        }
+        catch ( NumberFormatException e ) {
+            return false;
+        }
+    }
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity.
+     * @param hashIndex -  the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int hashIndex) {
+        return hashIndex & ( capacity - 1 ) ;
+    }
+
+    /* parses the canonical decimal representation of a value and inserts it if it is absent (a string that
+     * isn't one is never inserted). */
+    protected boolean insertIfAbsent(java.lang.String value, int hash) {
+        try {
+            return IntHashSet.isCanonicalDecimal(value) && insertIfAbsent(Long.parseLong(value));
+        }
+        catch ( NumberFormatException e ) {
+            return false;
+        }
+    }
+
+    /* parses the canonical decimal representation of a value and removes it if it is present. */
+    protected boolean removeIfPresent(java.lang.String value, int hash) {
+        try {
+            return IntHashSet.isCanonicalDecimal(value) && removeIfPresent(Long.parseLong(value));
+        }
+        catch ( NumberFormatException e ) {
+            return false;
+        }
+    }
+
+    /* looks for the value from its home cell, and if it wasn't found, puts it in the empty cell that ended
+     * the search. */
+    private boolean insertIfAbsent(long value) {
+        if ( value == 0 ) {
+            boolean isAbsent = ! hasZero;
+            hasZero = true;
+            return isAbsent;
+        }
+        int index = clamp(spread(value));
+        for (int i = 0; i < capacity; i++) {
+            if ( cells[index] == 0 ) {
+                cells[index] = value;
+                return true;
+            }
+            if ( cells[index] == value ) {
+                return false;
+            }
+            index = clamp(index + 1);
+        }
+        return false;
+    }
+
+    /* looks for the value, and if it was found, shifts the rest of its cluster back over its cell. */
+    private boolean removeIfPresent(long value) {
+        if ( value == 0 ) {
+            boolean isPresent = hasZero;
+            hasZero = false;
+            return isPresent;
+        }
+        int index = findValue(value);
+        if ( index == -1 ) {
+            return false;
+        }
+        int hole = index;
+        int next = clamp(index + 1);
+        while ( cells[next] != 0 ) {
+            // a cell can move back to the hole if the hole is between its home cell and it
+            int home = clamp(spread(cells[next]));
+            if ( clamp(next - home) >= clamp(next - hole) ) {
+                cells[hole] = cells[next];
+                hole = next;
+            }
+            next = clamp(next + 1);
+        }
+        cells[hole] = 0;
+        return true;
+    }
+
+    /* returns -1 if the (non zero) value wasn't found, else returns its index in the table. */
+    private int findValue(long value) {
+        int index = clamp(spread(value));
+        for (int i = 0; i < capacity; i++) {
+            if ( cells[index] == value ) {
+                return index;
+            }
+            if ( cells[index] == 0 ) {
+                return -1;
+            }
+            index = clamp(index + 1);
+        }
+        return -1;
+    }
+
+    /* Changes the capacity of the hash set and rehashes all the cells. */
+    protected void resize(int newCapacity) {
+        capacity = newCapacity;
+        long[] oldCells = cells;
+        cells = new long[capacity];
+        for ( long value: oldCells ) {
+            if ( value != 0 ) {
+                int index = clamp(spread(value));
+                while ( cells[index] != 0 ) {
+                    index = clamp(index + 1);
+                }
+                cells[index] = value;
+            }
+        }
+    }
+
+    /* Check if the current load factor exceeds the lower border, and if it does, then rehashes the hash
+     * set. */
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
+            minimizeSet();
+        }
+    }
+
+    protected void reHashAfterAddition() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= upLoadFactor ) {
+            enlargeSet();
+        }
+    }
+
+    /* Minimize the capacity (size) of the hash set. */
+    private void minimizeSet() {
+        if ( capacity >= 2 ) {
+            resize(capacity / 2);
+        }
+    }
+
+    /* Enlarge the capacity (size) of the hash set. */
+    private void enlargeSet() {
+        resize(2 * capacity);
+    }
+}
\ No newline at end of file
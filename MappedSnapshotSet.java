@@ -0,0 +1,321 @@
+/**
+ * A read-only set of strings that serves contains() straight from a snapshot file mapped into memory, so
+ * opening it doesn't read or rehash the strings, and processes that open the same file share its pages.
+ * A snapshot of an OpenHashSet or a ClosedHashSet is written by write(), in a binary format of 3 parts:
+ * - a header: a magic number, the version of the format, the number of strings, the capacity of the index
+ *   (a power of 2) and the length of the blob.
+ * - a hash index: a closed hash table with linear probing, where each cell is a long that keeps the
+ *   hashCode() of its string in the highest 32 bits and its offset in the blob plus 1 in the lowest 32 bits
+ *   (0 for an empty cell). The index is at most half full.
+ * - a string blob: the strings, each encoded in UTF-8 after its length (7 bits a byte, like ByteArena). The
+ *   strings are encoded by the same lossless encoder as OffHeapStringSet (an unpaired surrogate takes 3
+ *   bytes, and is never replaced by '?'), so different strings never have the same bytes.
+ * The index is located by String.hashCode(), which is the same in every JVM. A probe compares the stored hash
+ * code, and then the bytes of the string in the blob with the encoded searched string, without building a
+ * String.
+ * Both the index and the blob are limited to 2GB (the size of a single mapping).
+ * @author eden horka
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+public class MappedSnapshotSet implements SimpleSet {
+
+    /* The magic number at the start of a snapshot file ("SHSS"). */
+    private static final int MAGIC = 0x53485353 ;
+
+    /* The version of the format of the snapshot files (version 1 wrote an unpaired surrogate as '?'). */
+    private static final int VERSION = 2 ;
+
+    /* The size of the header (in bytes): magic, version, size, capacity and the length of the blob. */
+    private static final int HEADER_SIZE = 24 ;
+
+    /* The size of a cell of the index (in bytes). */
+    private static final int CELL_SIZE = 8 ;
+
+    /* The minimal capacity of the index. */
+    private static final int MIN_CAPACITY = 16 ;
+
+    /* The size of the buffer that the blob is written through. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16 ;
+
+    /* The mapped hash index. */
+    private final MappedByteBuffer index ;
+
+    /* The mapped string blob. */
+    private final MappedByteBuffer blob ;
+
+    /* The number of strings in the set. */
+    private final int size ;
+
+    /* The capacity of the index (a power of 2). */
+    private final int capacity ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * Opens a snapshot file and maps it into memory (read only).
+     * @param file - a snapshot file that was written by write().
+     * @throws IOException if the file can't be read, or isn't a snapshot file.
+     */
+    public MappedSnapshotSet(Path file) throws IOException {
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+            if ( channel.size() < HEADER_SIZE ) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE) ;
+            if (( header.getInt(0) != MAGIC ) || ( header.getInt(4) != VERSION )) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            size = header.getInt(8) ;
+            capacity = header.getInt(12) ;
+            long blobLength = header.getLong(16) ;
+            long indexLength = (long) capacity * CELL_SIZE ;
+            if (( capacity < MIN_CAPACITY ) || ( Integer.bitCount(capacity) != 1 )
+                    || ( channel.size() != HEADER_SIZE + indexLength + blobLength )) {
+                throw new IOException("Corrupted snapshot file: " + file);
+            }
+            index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, indexLength) ;
+            blob = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + indexLength, blobLength) ;
+        }
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Writes a snapshot of the given set to a file (replacing it if it exists).
+     * @param set - the set to write.
+     * @param file - the snapshot file.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(OpenHashSet set, Path file) throws IOException {
+        write(set.size(), set::forEach, file);
+    }
+
+    /**
+     * Writes a snapshot of the given set to a file (replacing it if it exists).
+     * @param set - the set to write.
+     * @param file - the snapshot file.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(ClosedHashSet set, Path file) throws IOException {
+        write(set.size(), set::forEach, file);
+    }
+
+    /**
+     * The set is read only.
+     * @param newValue New value to add to the set
+     * @return never returns.
+     * @throws UnsupportedOperationException always.
+     */
+    public boolean add(java.lang.String newValue) {
+        throw new UnsupportedOperationException("A snapshot set is read only.");
+    }
+
+    /**
+     * Look for a specified value in the set.
+     * @param searchVal Value to search for
+     * @return True iff searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        if ( searchVal == null ) {
+            return false ;
+        }
+        int hash = searchVal.hashCode() ;
+        int cellIndex = BaseHashSet.spread(hash) & ( capacity - 1 ) ;
+        // the value is encoded only once its hash code is found
+        byte[] encoded = null ;
+        int length = 0 ;
+        for (int i = 0; i < capacity; i++) {
+            long cell = index.getLong(cellIndex * CELL_SIZE) ;
+            if ( cell == 0 ) {
+                return false ;
+            }
+            if ( (int) ( cell >>> 32 ) == hash ) {
+                if ( encoded == null ) {
+                    encoded = new byte[3 * searchVal.length()] ;
+                    length = OffHeapStringSet.encode(searchVal, encoded) ;
+                }
+                if ( matches((int) cell - 1, encoded, length) ) {
+                    return true ;
+                }
+            }
+            cellIndex = ( cellIndex + 1 ) & ( capacity - 1 ) ;
+        }
+        return false ;
+    }
+
+    /**
+     * The set is read only.
+     * @param toDelete Value to delete
+     * @return never returns.
+     * @throws UnsupportedOperationException always.
+     */
+    public boolean delete(java.lang.String toDelete) {
+        throw new UnsupportedOperationException("A snapshot set is read only.");
+    }
+
+    /**
+     * @return The number of elements currently in the set
+     */
+    public int size() {
+        return size ;
+    }
+
+    /* checks if the string in the given offset of the blob has exactly the first length bytes of the given
+     * array (the encoded value, see OffHeapStringSet.encode()). */
+    private boolean matches(int offset, byte[] encoded, int length) {
+        int storedLength = 0 ;
+        int shift = 0 ;
+        byte b ;
+        do {
+            b = blob.get(offset++) ;
+            storedLength |= ( b & 0x7F ) << shift ;
+            shift += 7 ;
+        } while ( b < 0 ) ;
+        if ( storedLength != length ) {
+            return false ;
+        }
+        for (int i = 0; i < length; i++) {
+            if ( blob.get(offset + i) != encoded[i] ) {
+                return false ;
+            }
+        }
+        return true ;
+    }
+
+    /* writes a snapshot of the given number of values, that are given one by one to the consumer passed to
+     * forEachValue: the blob is written first (after room for the header and the index), while the index is
+     * built in memory, and then the index and the header are written before it. */
+    private static void write(int numOfValues, Consumer<Consumer<java.lang.String>> forEachValue, Path file)
+            throws IOException {
+        int capacity = MIN_CAPACITY ;
+        while ( capacity < 2 * numOfValues ) {
+            capacity = 2 * capacity ;
+        }
+        long[] cells = new long[capacity] ;
+        long indexLength = (long) capacity * CELL_SIZE ;
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING) ) {
+            BlobWriter blobWriter = new BlobWriter(channel, HEADER_SIZE + indexLength, cells) ;
+            forEachValue.accept(blobWriter);
+            long blobLength = blobWriter.finish() ;
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE) ;
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(numOfValues).putInt(capacity).putLong(blobLength);
+            long position = 0 ;
+            for ( long cell: cells ) {
+                if ( buffer.remaining() < CELL_SIZE ) {
+                    position += flush(channel, buffer, position) ;
+                }
+                buffer.putLong(cell);
+            }
+            flush(channel, buffer, position);
+        }
+    }
+
+    /* writes the content of the buffer at the given position of the channel, clears the buffer, and returns
+     * the number of bytes that were written. */
+    private static int flush(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int written = 0 ;
+        while ( buffer.hasRemaining() ) {
+            written += channel.write(buffer, position + written) ;
+        }
+        buffer.clear();
+        return written ;
+    }
+
+
+    /* Writes the values it accepts to the blob of a snapshot file, and puts them in the index. */
+    private static final class BlobWriter implements Consumer<java.lang.String> {
+
+        /* The channel of the snapshot file. */
+        private final FileChannel channel ;
+
+        /* The position of the blob in the file. */
+        private final long blobPosition ;
+
+        /* The cells of the index. */
+        private final long[] cells ;
+
+        /* The buffer of the bytes that were not written yet. */
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE) ;
+
+        /* The encoded bytes of the last value (reused, so encoding doesn't allocate). */
+        private byte[] encoded = new byte[64] ;
+
+        /* The number of bytes that were written to the blob. */
+        private long written ;
+
+        /* The first error of the file, if any. */
+        private IOException error ;
+
+        BlobWriter(FileChannel channel, long blobPosition, long[] cells) {
+            this.channel = channel ;
+            this.blobPosition = blobPosition ;
+            this.cells = cells ;
+        }
+
+        /* appends the value to the blob and puts its offset in the index. */
+        public void accept(java.lang.String value) {
+            if ( error != null ) {
+                return ;
+            }
+            if ( encoded.length < 3 * value.length() ) {
+                encoded = new byte[Math.max(3 * value.length(), 2 * encoded.length)] ;
+            }
+            int numOfBytes = OffHeapStringSet.encode(value, encoded) ;
+            long offset = written + buffer.position() ;
+            if ( offset + 1 > Integer.MAX_VALUE - numOfBytes - 5 ) {
+                error = new IOException("The strings of the set are larger than 2GB.");
+                return ;
+            }
+            int hash = value.hashCode() ;
+            int cellIndex = BaseHashSet.spread(hash) & ( cells.length - 1 ) ;
+            while ( cells[cellIndex] != 0 ) {
+                cellIndex = ( cellIndex + 1 ) & ( cells.length - 1 ) ;
+            }
+            cells[cellIndex] = ((long) hash << 32 ) | ( offset + 1 ) ;
+            int length = numOfBytes ;
+            while ( length >= 0x80 ) {
+                put((byte) (( length & 0x7F ) | 0x80 ));
+                length >>>= 7 ;
+            }
+            put((byte) length);
+            for (int i = 0; i < numOfBytes; i++) {
+                put(encoded[i]);
+            }
+        }
+
+        /* writes what is left in the buffer, and returns the length of the blob. */
+        long finish() throws IOException {
+            if ( error != null ) {
+                throw error ;
+            }
+            written += flush(channel, buffer, blobPosition + written) ;
+            return written ;
+        }
+
+        /* puts a byte in the buffer, and writes the buffer when it is full. */
+        private void put(byte b) {
+            if ( ! buffer.hasRemaining() ) {
+                try {
+                    written += flush(channel, buffer, blobPosition + written) ;
+                }
+                catch ( IOException e ) {
+                    error = e ;
+                    buffer.clear();
+                }
+            }
+            buffer.put(b);
+        }
+    }
+}
\ No newline at end of file
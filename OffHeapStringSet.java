@@ -0,0 +1,281 @@
+/**
+ * This class represents a compact hash set of a closed hashing model, that keeps its strings off the heap.
+ * The strings are encoded in UTF-8 and kept as records of bytes in an off-heap arena (ByteArena). The
+ * table itself is a single array of longs: each cell keeps the hash code of its string and the address of its
+ * record in the arena (0 for an empty cell), so the heap holds no object per element.
+ * An unpaired surrogate is encoded by itself in 3 bytes, like any other char below 0x10000 (as in CESU-8 and
+ * WTF-8), and not as '?' (like String.getBytes()), so different strings never have the same bytes.
+ * The cells are probed linearly, and a probe compares the cached hash code, and then the bytes of the record
+ * with the encoded searched string, without building a String. Deletion shifts the following cells of the
+ * cluster back (no deleted cells), and the arena is compacted on a rehash once its released records take
+ * more room than its live ones.
+ * An element costs the length of its UTF-8 bytes, 1 byte of length (for up to 127 bytes) and 8 bytes per cell
+ * of the table.
+ * @author eden horka
+ */
+
+public class OffHeapStringSet extends SimpleHashSet {
+
+    /* The minimal number of bytes of released records for which the arena is compacted after a deletion. */
+    private static final int MIN_COMPACTION_BYTES = 1 << 16 ;
+
+    /* The cells of the table: the hash code in the highest 32 bits and the address in the lowest 32 bits. */
+    private long[] cells ;
+
+    /* The arena that keeps the encoded strings. */
+    private ByteArena arena = new ByteArena() ;
+
+    /* The UTF-8 bytes of the last encoded string (reused, so encoding doesn't allocate). */
+    private byte[] encoded = new byte[64] ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of an off heap string set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor.
+     */
+    public OffHeapStringSet() {
+        cells = new long[capacity] ;
+    }
+
+    /**
+     * A constructor of an off heap string set.
+     * Builds a new, empty table with the specified load factors, and the default initial capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     */
+    public OffHeapStringSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+        cells = new long[capacity] ;
+    }
+
+    /**
+     * A constructor of an off heap string set.
+     * Builds a new, empty table with the specified load factors and hash function, and the default initial
+     * capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     */
+    public OffHeapStringSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction) {
+        super(upperLoadFactor, lowerLoadFactor, hashFunction);
+        cells = new long[capacity] ;
+    }
+
+    /**
+     * A constructor of an off heap string set.
+     * Builds the hash set with the given elements (duplicate values should be ignored).
+     * The table is allocated once, with a capacity that fits all the elements, and filled in a single pass.
+     * The new table has the default load factors.
+     *
+     * @param data - Values to add to the set.
+     */
+    public OffHeapStringSet(java.lang.String[] data) {
+        setInitialCapacity(data.length);
+        cells = new long[capacity] ;
+        addAll(data);
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Look for a specified value in the set.
+     *
+     * @param searchVal - Value to search for
+     * @return True - if searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        return ( searchVal != null ) && ( findValue(hash(searchVal), encode(searchVal)) != -1 ) ;
+    }
+
+    /**
+     * @return The number of bytes of off-heap memory used by the strings of the set (including released
+     * strings that were not compacted yet, and the free room of the arena).
+     */
+    public long offHeapBytes() {
+        return arena.allocatedBytes() ;
+    }
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity.
+     * @param hashIndex -  the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int hashIndex) {
+        return hashIndex & ( capacity - 1 ) ;
+    }
+
+    /* looks for the value from its home cell, and if it wasn't found, appends its bytes to the arena and
+     * puts it in the empty cell that ended the search. */
+    protected boolean insertIfAbsent(java.lang.String value, int hash) {
+        int length = encode(value);
+        int index = clamp(spread(hash));
+        for (int i = 0; i < capacity; i++) {
+            long cell = cells[index];
+            if ( cell == 0 ) {
+                cells[index] = cell(hash, arena.append(encoded, length));
+                return true;
+            }
+            if (( hashOf(cell) == hash ) && arena.matches(addressOf(cell), encoded, length)) {
+                return false;
+            }
+            index = clamp(index + 1);
+        }
+        return false;
+    }
+
+    /* looks for the value, and if it was found, releases its bytes and shifts the rest of its cluster back
+     * over its cell. */
+    protected boolean removeIfPresent(java.lang.String value, int hash) {
+        int index = findValue(hash, encode(value));
+        if ( index == -1 ) {
+            return false;
+        }
+        arena.release(addressOf(cells[index]));
+        int hole = index;
+        int next = clamp(index + 1);
+        while ( cells[next] != 0 ) {
+            // a cell can move back to the hole if the hole is between its home cell and it
+            int home = clamp(spread(hashOf(cells[next])));
+            if ( clamp(next - home) >= clamp(next - hole) ) {
+                cells[hole] = cells[next];
+                hole = next;
+            }
+            next = clamp(next + 1);
+        }
+        cells[hole] = 0;
+        return true;
+    }
+
+    /* returns -1 if the value with the given hash code and the given number of encoded bytes wasn't found,
+     * else returns its index in the table. */
+    private int findValue(int hash, int length) {
+        int index = clamp(spread(hash));
+        for (int i = 0; i < capacity; i++) {
+            long cell = cells[index];
+            if ( cell == 0 ) {
+                return -1;
+            }
+            if (( hashOf(cell) == hash ) && arena.matches(addressOf(cell), encoded, length)) {
+                return index;
+            }
+            index = clamp(index + 1);
+        }
+        return -1;
+    }
+
+    /* encodes the value into the encoded array (see encode(String, byte[])), and returns the number of
+     * bytes. */
+    private int encode(java.lang.String value) {
+        int numOfChars = value.length();
+        if ( encoded.length < 3 * numOfChars ) {
+            encoded = new byte[Math.max(3 * numOfChars, 2 * encoded.length)];
+        }
+        return encode(value, encoded);
+    }
+
+    /* encodes the value in UTF-8 into the given array, that has room for 3 bytes per char, and returns the
+     * number of bytes. An unpaired surrogate is encoded in 3 bytes like any other char (and not as '?', like
+     * String.getBytes() does), so the encoding is lossless. */
+    static int encode(java.lang.String value, byte[] encoded) {
+        int numOfChars = value.length();
+        int length = 0;
+        for (int i = 0; i < numOfChars; i++) {
+            char c = value.charAt(i);
+            if ( c < 0x80 ) {
+                encoded[length++] = (byte) c;
+            }
+            else if ( c < 0x800 ) {
+                encoded[length++] = (byte) ( 0xC0 | ( c >> 6 ));
+                encoded[length++] = (byte) ( 0x80 | ( c & 0x3F ));
+            }
+            else if ( Character.isHighSurrogate(c) && ( i + 1 < numOfChars )
+                    && Character.isLowSurrogate(value.charAt(i + 1)) ) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                encoded[length++] = (byte) ( 0xF0 | ( codePoint >> 18 ));
+                encoded[length++] = (byte) ( 0x80 | (( codePoint >> 12 ) & 0x3F ));
+                encoded[length++] = (byte) ( 0x80 | (( codePoint >> 6 ) & 0x3F ));
+                encoded[length++] = (byte) ( 0x80 | ( codePoint & 0x3F ));
+            }
+            else {
+                encoded[length++] = (byte) ( 0xE0 | ( c >> 12 ));
+                encoded[length++] = (byte) ( 0x80 | (( c >> 6 ) & 0x3F ));
+                encoded[length++] = (byte) ( 0x80 | ( c & 0x3F ));
+            }
+        }
+        return length;
+    }
+
+    /* returns a cell of the given hash code and address. */
+    private static long cell(int hash, int address) {
+        return ((long) hash << 32 ) | ( address & 0xFFFFFFFFL );
+    }
+
+    /* returns the hash code of the given cell. */
+    private static int hashOf(long cell) {
+        return (int) ( cell >>> 32 );
+    }
+
+    /* returns the address of the given cell. */
+    private static int addressOf(long cell) {
+        return (int) cell;
+    }
+
+    /* Changes the capacity of the hash set and rehashes all the cells (the records themselves stay in the
+     * arena, unless it is compacted). */
+    protected void resize(int newCapacity) {
+        capacity = newCapacity;
+        long[] oldCells = cells;
+        ByteArena oldArena = arena;
+        boolean isCompacted = arena.garbageBytes() > arena.liveBytes();
+        if ( isCompacted ) {
+            arena = new ByteArena();
+        }
+        cells = new long[capacity];
+        for ( long cell: oldCells ) {
+            if ( cell != 0 ) {
+                int address = isCompacted ? arena.copyFrom(oldArena, addressOf(cell)) : addressOf(cell);
+                int index = clamp(spread(hashOf(cell)));
+                while ( cells[index] != 0 ) {
+                    index = clamp(index + 1);
+                }
+                cells[index] = cell(hashOf(cell), address);
+            }
+        }
+    }
+
+    /* Check if the current load factor exceeds the lower border, and if it does, then rehashes the hash set.
+     * Else, compacts the arena if its released records take more room than the live ones. */
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
+            minimizeSet();
+        }
+        else if (( arena.garbageBytes() >= MIN_COMPACTION_BYTES )
+                && ( arena.garbageBytes() > arena.liveBytes() )) {
+            resize(capacity);
+        }
+    }
+
+    protected void reHashAfterAddition() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= upLoadFactor ) {
+            enlargeSet();
+        }
+    }
+
+    /* Minimize the capacity (size) of the hash set. */
+    private void minimizeSet() {
+        if ( capacity >= 2 ) {
+            resize(capacity / 2);
+        }
+    }
+
+    /* Enlarge the capacity (size) of the hash set. */
+    private void enlargeSet() {
+        resize(2 * capacity);
+    }
+}
\ No newline at end of file
@@ -3,16 +3,43 @@
  * several items to be hashed to the same cell.
  * In this model, each cell in the hash table is a list (Bucket), and an element with the hash k is added to
  * the k’th bucket (after being fitted to the legal index range, which will be discussed shortly).
+ * A bucket is created only when the first value is added to it (a null cell is an empty bucket). A bucket
+ * keeps the hash code of each value, so a search compares strings only when their hash codes match, and a
+ * rehash does not hash the values again.
+ * In the incremental resize mode, a resize does not rehash all the elements at once: the old array is kept
+ * beside the new one, and a few buckets are moved from the old array to the new one on every addition or
+ * deletion, until the old array is empty.
+ * In the parallel resize mode, a very large table is rehashed by several threads (on a ForkJoinPool), with
+ * the same result as a rehash by a single thread.
+ * With -Dhashset.statistics=true, the set records the number of entries compared by every search and the
+ * time of every resize (see SimpleHashSet.statistics()).
  * @author eden horka
  */
 
 import java.util.* ;
+import java.util.function.Consumer ;
 
 public class OpenHashSet extends SimpleHashSet{
 
+    /* The number of buckets that are moved from the old array on each addition or deletion, while an
+     * incremental resize is in progress. */
+    private static final int MIGRATION_STEP = 16 ;
+
     /* An array of buckets represents an open hash set. */
     private Bucket[] openHashSet ;
 
+    /* The array of buckets from before the resize, while an incremental resize is in progress (else null). */
+    private Bucket[] oldHashSet ;
+
+    /* The index of the next bucket of the old array that is moved to the new array. */
+    private int migrationIndex ;
+
+    /* true if the hash set resizes incrementally, false if it rehashes all the elements at once. */
+    private boolean isIncrementalResize ;
+
+    /* true if a rehash of a very large table is split between several threads. */
+    private boolean isParallelResize ;
+
     /* ===== Constructors: ==== */
 
     /**
@@ -21,7 +48,6 @@ public class OpenHashSet extends SimpleHashSet{
      */
     public OpenHashSet() {
         openHashSet = new Bucket[capacity] ;
-        reset(openHashSet);
     }
 
 
@@ -33,63 +59,90 @@ public class OpenHashSet extends SimpleHashSet{
      */
     public OpenHashSet(float upperLoadFactor, float lowerLoadFactor ){
         openHashSet = new Bucket[capacity] ;
-        reset(openHashSet);
         lowLoadFactor = lowerLoadFactor;
         upLoadFactor = upperLoadFactor;
     }
 
     /**
      * A constructor of an open hash set.
-     * Builds the hash set by adding elements one by one (duplicate values should be ignored).
-     * The new table has the default values.
+     * Builds a new, empty table with the specified load factors and hash function, and the default initial
+     * capacity.
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     */
+    public OpenHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction){
+        super(upperLoadFactor, lowerLoadFactor, hashFunction);
+        openHashSet = new Bucket[capacity] ;
+    }
+
+    /**
+     * A constructor of an open hash set.
+     * Builds the hash set with the given elements (duplicate values should be ignored).
+     * The table is allocated once, with a capacity that fits all the elements, and filled in a single pass.
+     * The new table has the default load factors.
      * @param data - Values to add to the set.
      */
     public OpenHashSet(java.lang.String[] data){
+        setInitialCapacity(data.length);
         openHashSet = new Bucket[capacity] ;
-        reset(openHashSet);
-        for (String value: data){
-            add(value) ;
-        }
+        addAll(data) ;
     }
 
 
     /* ==== Methods: ==== */
 
     /**
-     * Add a specified element to the set if it's not already in it.
-     * @param newValue New value to add to the set
-     * @return False iff newValue already exists in the set
+     * Sets the resize mode of the hash set.
+     * In the incremental mode, a resize keeps the old array beside the new one and moves a few buckets on every
+     * addition or deletion, so no single call rehashes all the elements.
+     * @param isIncremental - true for the incremental resize mode, false to rehash all the elements at once.
      */
-    public boolean add(java.lang.String newValue) {
-        if (( newValue != null ) && ( ! contains(newValue) )) {
-            numOfElements++ ;
-            reHashAfterAddition();
-            int index = clamp(newValue.hashCode()) ;
-            openHashSet[index].add(newValue) ;
-            return true ;
+    public void setIncrementalResize(boolean isIncremental) {
+        if ( ! isIncremental ) {
+            finishMigration();
         }
-        return false ;
+        isIncrementalResize = isIncremental ;
     }
 
     /**
-     * Remove the input element from the set.
-     * @param toDelete Value to delete
-     * @return True iff toDelete is found and deleted
+     * Sets the parallel resize mode of the hash set.
+     * In the parallel mode, a rehash of a very large table (65536 buckets and more) is split into ranges that
+     * are rehashed in parallel on the common ForkJoinPool. The new table is the same as the one a single
+     * thread would build. The incremental mode, if set, is used instead.
+     * @param isParallel - true for the parallel resize mode, false to rehash on the calling thread only.
      */
-    public boolean delete( java.lang.String toDelete){
-        if ( ! contains(toDelete) ) {
-            return false ;
-        }
-        if( toDelete!= null ) {
-            int index = clamp(toDelete.hashCode()) ;
-            if ( isIndexValid(index) ) {
-                openHashSet[index].delete(toDelete) ;
-                numOfElements -- ;
-                reHashAfterDeletion();
+    public void setParallelResize(boolean isParallel) {
+        isParallelResize = isParallel ;
+    }
+
+    /* adds the value to its bucket, unless the bucket already contains it (a single scan of the bucket). */
+    protected boolean insertIfAbsent(java.lang.String value, int hash) {
+        if ( oldHashSet != null ) {
+            migrate();
+            Bucket oldBucket = findOldBucket(hash);
+            if (( oldBucket != null ) && oldBucket.contains(value, hash)) {
+                return false ;
+            }
+        }
+        int index = clamp(hash) ;
+        if ( openHashSet[index] == null ) {
+            openHashSet[index] = new Bucket();
+        }
+        return openHashSet[index].add(value, hash) ;
+    }
+
+    /* removes the value from its bucket, if the bucket contains it (a single scan of the bucket). */
+    protected boolean removeIfPresent(java.lang.String value, int hash) {
+        if ( oldHashSet != null ) {
+            migrate();
+            Bucket oldBucket = findOldBucket(hash);
+            if (( oldBucket != null ) && oldBucket.delete(value, hash)) {
                 return true ;
             }
         }
-        return false;
+        Bucket bucket = openHashSet[clamp(hash)] ;
+        return ( bucket != null ) && bucket.delete(value, hash) ;
     }
 
     /**
@@ -99,58 +152,222 @@ public class OpenHashSet extends SimpleHashSet{
      */
     public boolean contains(java.lang.String searchVal){
         if (searchVal != null) {
-            int index = clamp(searchVal.hashCode()) ;
-            if ( isIndexValid(index) ) {
-                if (openHashSet[index] == null) {
-                    return false;
-                }
-                return openHashSet[index].contains(searchVal);
+            int hash = hash(searchVal) ;
+            if ( HashSetStatistics.ENABLED ) {
+                return recordedContains(searchVal, hash) ;
+            }
+            int index = clamp(hash) ;
+            if (( openHashSet[index] != null ) && openHashSet[index].contains(searchVal, hash)) {
+                return true;
             }
+            Bucket oldBucket = findOldBucket(hash);
+            return ( oldBucket != null ) && oldBucket.contains(searchVal, hash);
         }
         return false;
     }
 
+    /* looks for the value like contains(), and records the number of entries compared in its buckets. */
+    private boolean recordedContains(java.lang.String value, int hash) {
+        Bucket bucket = openHashSet[clamp(hash)] ;
+        int probes = ( bucket != null ) ? bucket.probe(value, hash) : -1 ;
+        Bucket oldBucket = findOldBucket(hash) ;
+        if (( probes < 0 ) && ( oldBucket != null )) {
+            int oldProbes = oldBucket.probe(value, hash) ;
+            // the entries of both buckets are counted
+            probes = ( oldProbes > 0 ) ? oldProbes - probes - 1 : probes + oldProbes + 1 ;
+        }
+        recorder.recordSearch(probes);
+        return probes > 0 ;
+    }
+
+    /**
+     * @return the histogram of the sizes of the buckets of the table, including the empty ones (and the
+     * buckets of the old array that were not moved yet, while an incremental resize is in progress).
+     */
+    protected long[] chainLengths() {
+        long[] chainLengths = new long[HashSetStatistics.MAX_LENGTH + 1] ;
+        for (int slot = 0; slot < numOfSlots(); slot++) {
+            Bucket bucket = bucketAt(slot) ;
+            if (( bucket != null ) || ( slot < openHashSet.length )) {
+                int length = ( bucket != null ) ? bucket.size() : 0 ;
+                chainLengths[Math.min(length, HashSetStatistics.MAX_LENGTH)]++ ;
+            }
+        }
+        return chainLengths ;
+    }
+
+    /**
+     * Performs the given action on every value of the set (including the values of the old array that were
+     * not moved yet, while an incremental resize is in progress). Empty buckets are skipped.
+     * The set must not be changed by the action.
+     * @param action - the action to perform on each value.
+     */
+    public void forEach(Consumer<? super java.lang.String> action) {
+        for (int slot = 0; slot < numOfSlots(); slot++) {
+            Bucket bucket = bucketAt(slot) ;
+            if ( bucket != null ) {
+                bucket.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * @return a new cursor over the values of the set, that allocates nothing per value (only an iterator
+     * per tree bucket). The set must not be changed while the cursor is used.
+     */
+    public SetCursor cursor() {
+        return new Cursor(0, numOfSlots()) ;
+    }
+
+    /**
+     * @return a spliterator over the values of the set, that splits the table into ranges of buckets (for a
+     * parallel stream: java.util.stream.StreamSupport.stream(set.spliterator(), true)). The set must not be
+     * changed while the spliterator is used.
+     */
+    public Spliterator<String> spliterator() {
+        return new SlotSpliterator(Cursor::new, 0, numOfSlots(), numOfElements) ;
+    }
+
+    /* returns the number of slots of the traversals: the buckets of the table, followed by the buckets of
+     * the old array (while an incremental resize is in progress). */
+    private int numOfSlots() {
+        return openHashSet.length + (( oldHashSet != null ) ? oldHashSet.length : 0) ;
+    }
+
+    /* returns the bucket of the given slot of the traversals (null for an empty bucket, or a bucket of the
+     * old array that was already moved). */
+    private Bucket bucketAt(int slot) {
+        if ( slot < openHashSet.length ) {
+            return openHashSet[slot] ;
+        }
+        int oldIndex = slot - openHashSet.length ;
+        return ( oldIndex >= migrationIndex ) ? oldHashSet[oldIndex] : null ;
+    }
+
     /* calculates and returns the matching index in the hash set for a given string. */
     protected int clamp( int index ) {
         return index & ( capacity - 1 ) ;
     }
 
+    /* returns the bucket of the old array for the given hash, or null if it was already moved (or there is
+     * no resize in progress). */
+    private Bucket findOldBucket(int hash) {
+        if ( oldHashSet == null ) {
+            return null ;
+        }
+        int index = hash & ( oldHashSet.length - 1 ) ;
+        return ( index >= migrationIndex ) ? oldHashSet[index] : null ;
+    }
+
+    /* moves the next MIGRATION_STEP buckets of the old array to the new array. */
+    private void migrate() {
+        int end = Math.min(migrationIndex + MIGRATION_STEP, oldHashSet.length) ;
+        for (; migrationIndex < end; migrationIndex++) {
+            moveBucket(oldHashSet[migrationIndex], openHashSet);
+            oldHashSet[migrationIndex] = null ;
+        }
+        if ( migrationIndex == oldHashSet.length ) {
+            oldHashSet = null ;
+        }
+    }
+
+    /* moves all the remaining buckets of the old array to the new array, if a resize is in progress. */
+    private void finishMigration() {
+        if ( oldHashSet != null ) {
+            for (; migrationIndex < oldHashSet.length; migrationIndex++) {
+                moveBucket(oldHashSet[migrationIndex], openHashSet);
+            }
+            oldHashSet = null ;
+        }
+    }
+
+    /* adds the values of the given bucket to their buckets in the given array (of the current capacity), by
+     * their kept hash codes. */
+    private void moveBucket(Bucket bucket, Bucket[] hashSet) {
+        if ( bucket == null ) {
+            return ;
+        }
+        if ( bucket.isTree() ) {
+            Iterator<Bucket.Entry> entries = bucket.treeIterator();
+            while ( entries.hasNext() ) {
+                moveEntry(entries.next(), hashSet);
+            }
+        }
+        else {
+            for ( Bucket.Entry entry = bucket.first(); entry != null; entry = entry.next ) {
+                moveEntry(entry, hashSet);
+            }
+        }
+    }
+
+    /* adds the value of the given entry to its bucket in the given array (of the current capacity). */
+    private void moveEntry(Bucket.Entry entry, Bucket[] hashSet) {
+        int newIndex = clamp(entry.hash);
+        if ( hashSet[newIndex] == null ) {
+            hashSet[newIndex] = new Bucket();
+        }
+        hashSet[newIndex].push(entry.value, entry.hash) ;
+    }
 
     /* Rehashes all the elements in the open hash set. */
     private void reHash(){
         Bucket[] newHashSet = new Bucket[capacity] ;
-        reset(newHashSet);
-        for ( Bucket cell: openHashSet ){
-            ListIterator<String> iterCell = cell.bucketIterator();
-            while ( iterCell.hasNext() )  {
-                java.lang.String value = iterCell.next();
-                int newIndex =  clamp(value.hashCode());
-                if ( isIndexValid(newIndex) ){
-                    newHashSet[newIndex].add(value) ;
-                }
+        if ( isParallelResize && ( openHashSet.length >= RangeTask.PARALLEL_THRESHOLD )) {
+            parallelReHash(openHashSet, newHashSet);
+        }
+        else {
+            for ( Bucket cell: openHashSet ){
+                moveBucket(cell, newHashSet);
             }
         }
         openHashSet = newHashSet;
     }
 
-    /* resets the given hash set cells to be empty. */
-    private void reset(Bucket[] hashSet){
-        for(int i=0; i< capacity;i++){
-            hashSet[i] = new Bucket();
+    /* Rehashes the buckets of the given array into the new array in parallel. The capacities are powers of 2,
+     * so the values of an old bucket can only move to new buckets with the same index modulo the smaller
+     * capacity. Each task takes a range of such indices, owns their buckets in both arrays, and moves the
+     * old buckets in the order of a single thread rehash, so every new bucket gets its values in the same
+     * order. */
+    private void parallelReHash(Bucket[] fromHashSet, Bucket[] toHashSet) {
+        int stride = Math.min(fromHashSet.length, toHashSet.length) ;
+        RangeTask.runInParallel((from, to) -> {
+            for (int residue = from; residue < to; residue++) {
+                for (int i = residue; i < fromHashSet.length; i += stride) {
+                    moveBucket(fromHashSet[i], toHashSet);
+                }
+            }
+        }, stride);
+    }
+
+    /* Changes the capacity of the hash set, and either rehashes all the elements or starts an incremental
+     * resize (only its start is timed by the statistics). */
+    protected void resize(int newCapacity) {
+        long start = HashSetStatistics.ENABLED ? System.nanoTime() : 0 ;
+        finishMigration();
+        capacity = newCapacity ;
+        if ( isIncrementalResize ) {
+            oldHashSet = openHashSet ;
+            openHashSet = new Bucket[capacity] ;
+            migrationIndex = 0 ;
+        }
+        else {
+            reHash() ;
+        }
+        if ( HashSetStatistics.ENABLED ) {
+            recorder.recordRehash(System.nanoTime() - start);
         }
     }
 
 
     /* Check if the current load factor exceeds the upper or the lower border
      * and if it does, then rehashes the hash set. */
-    private void reHashAfterDeletion() {
-        loadFactor = ((float) numOfElements) / capacity;
-        if (loadFactor < lowLoadFactor) {
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
             minimizeSet();
         }
     }
 
-    private void reHashAfterAddition(){
+    protected void reHashAfterAddition(){
         loadFactor = ((float) numOfElements) / capacity;
         if ( loadFactor > upLoadFactor ) {
             enlargeSet() ;
@@ -160,15 +377,62 @@ public class OpenHashSet extends SimpleHashSet{
     /* Minimize the capacity (size) of the hash set. */
     private void minimizeSet(){
         if ( capacity >= 2 ){
-            capacity = capacity/2 ;
-            reHash() ;
+            resize(capacity/2) ;
         }
     }
 
     /* Enlarge the capacity (size) of the hash set. */
     private void enlargeSet() {
-        capacity = 2 * capacity ;
-        reHash() ;
+        resize(2 * capacity) ;
     }
 
+    /* A cursor over a range of slots of the set, that skips the empty buckets. */
+    private class Cursor implements SetCursor {
+
+        /* The next slot of the range. */
+        private int slot ;
+
+        /* The slot after the last slot of the range. */
+        private final int end ;
+
+        /* The next entry of the current bucket, while it is a list. */
+        private Bucket.Entry entry ;
+
+        /* The entries of the current bucket that were not visited yet, while it is a tree. */
+        private Iterator<Bucket.Entry> entries ;
+
+        /* The current value. */
+        private java.lang.String value ;
+
+        /* builds a cursor over the slots from (including) to end (excluding). */
+        Cursor(int from, int end) {
+            this.slot = from ;
+            this.end = end ;
+        }
+
+        public boolean advance() {
+            while (( entry == null ) && (( entries == null ) || ( ! entries.hasNext() ))) {
+                if ( slot >= end ) {
+                    value = null ;
+                    return false ;
+                }
+                Bucket bucket = bucketAt(slot++) ;
+                boolean isTree = ( bucket != null ) && bucket.isTree() ;
+                entries = isTree ? bucket.treeIterator() : null ;
+                entry = (( bucket != null ) && ( ! isTree )) ? bucket.first() : null ;
+            }
+            if ( entry != null ) {
+                value = entry.value ;
+                entry = entry.next ;
+            }
+            else {
+                value = entries.next().value ;
+            }
+            return true ;
+        }
+
+        public java.lang.String value() {
+            return value ;
+        }
+    }
 }
\ No newline at end of file
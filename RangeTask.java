@@ -0,0 +1,80 @@
+/**
+ * A fork/join task that splits a range of indices (of the cells or buckets of a hash table) into smaller
+ * ranges, and runs an action on each of them in parallel, on the common ForkJoinPool.
+ * Used to rehash very large hash tables in parallel.
+ * @author eden horka
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+class RangeTask extends RecursiveAction {
+
+    /* RecursiveAction is serializable, but a task is never serialized. */
+    private static final long serialVersionUID = 1L ;
+
+    /* The minimal length of an array that is rehashed in parallel (smaller arrays are rehashed faster by a
+     * single thread). */
+    static final int PARALLEL_THRESHOLD = 1 << 16 ;
+
+    /* The default length of a range that is not split any further. */
+    private static final int MIN_RANGE = 1 << 12 ;
+
+    /* An action on the indices of a range (from inclusive, to exclusive). */
+    interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /* The action to run on the range. */
+    private final RangeAction action ;
+
+    /* The first index of the range. */
+    private final int from ;
+
+    /* The index after the last index of the range. */
+    private final int to ;
+
+    /* The length of a range that is not split any further. */
+    private final int minRange ;
+
+    /* Builds a task that runs the given action on the given range. */
+    private RangeTask(RangeAction action, int from, int to, int minRange) {
+        this.action = action ;
+        this.from = from ;
+        this.to = to ;
+        this.minRange = minRange ;
+    }
+
+    /**
+     * Runs the given action on the indices 0 to length-1, split into ranges that run in parallel, and
+     * returns when all of them are done.
+     * @param action - the action to run on each range.
+     * @param length - the number of indices.
+     */
+    static void runInParallel(RangeAction action, int length) {
+        runInParallel(action, length, MIN_RANGE);
+    }
+
+    /**
+     * Runs the given action on the indices 0 to length-1, split into ranges of at most minRange indices that
+     * run in parallel, and returns when all of them are done.
+     * @param action - the action to run on each range.
+     * @param length - the number of indices.
+     * @param minRange - the length of a range that is not split any further (at least 1).
+     */
+    static void runInParallel(RangeAction action, int length, int minRange) {
+        ForkJoinPool.commonPool().invoke(new RangeTask(action, 0, length, minRange));
+    }
+
+    /**
+     * Runs the action on the range if it is small enough, else splits it in two.
+     */
+    protected void compute() {
+        if ( to - from <= minRange ) {
+            action.run(from, to);
+            return ;
+        }
+        int middle = ( from + to ) >>> 1 ;
+        invokeAll(new RangeTask(action, from, middle, minRange), new RangeTask(action, middle, to, minRange));
+    }
+}
\ No newline at end of file
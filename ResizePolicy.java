@@ -0,0 +1,64 @@
+/**
+ * A policy that controls when a simple hash set shrinks its table, to avoid repeated rehashes when the number
+ * of elements moves back and forth around a border:
+ * - the minimum capacity: the table is never shrunk below it.
+ * - the shrink delay: the number of deletions in a row that must leave the load factor below the lower load
+ *   factor before the table is shrunk.
+ * - the hysteresis: the table is shrunk only if its load factor after the shrink is lower than the upper load
+ *   factor by at least this margin (so the next additions don't enlarge it right back).
+ * @author eden horka
+ */
+
+public class ResizePolicy {
+
+    /** The default policy: shrinks down to a capacity of 1, with no delay and no hysteresis. */
+    public static final ResizePolicy DEFAULT = new ResizePolicy(1, 0, 0f);
+
+    /* The minimum capacity of the table. */
+    private final int minCapacity ;
+
+    /* The number of deletions in a row below the lower load factor before the table is shrunk. */
+    private final int shrinkDelay ;
+
+    /* The margin below the upper load factor that the load factor must have after a shrink. */
+    private final float hysteresis ;
+
+    /**
+     * Constructs a new resize policy.
+     * @param minCapacity - the minimum capacity of the table (rounded up to a power of 2).
+     * @param shrinkDelay - the number of deletions in a row that must leave the load factor below the lower
+     *                    load factor before the table is shrunk.
+     * @param hysteresis - the margin below the upper load factor that the load factor must have after a
+     *                   shrink.
+     */
+    public ResizePolicy(int minCapacity, int shrinkDelay, float hysteresis) {
+        int capacity = 1 ;
+        while (( capacity < minCapacity ) && ( capacity < SimpleHashSet.MAX_CAPACITY )) {
+            capacity = 2 * capacity ;
+        }
+        this.minCapacity = capacity ;
+        this.shrinkDelay = Math.max(0, shrinkDelay) ;
+        this.hysteresis = Math.max(0f, hysteresis) ;
+    }
+
+    /**
+     * @return the minimum capacity of the table (a power of 2).
+     */
+    public int getMinCapacity() {
+        return minCapacity ;
+    }
+
+    /**
+     * @return the number of deletions in a row below the lower load factor before the table is shrunk.
+     */
+    public int getShrinkDelay() {
+        return shrinkDelay ;
+    }
+
+    /**
+     * @return the margin below the upper load factor that the load factor must have after a shrink.
+     */
+    public float getHysteresis() {
+        return hysteresis ;
+    }
+}
\ No newline at end of file
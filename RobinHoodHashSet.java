@@ -0,0 +1,226 @@
+/**
+ * This class represents a hash set of a closed hashing model with Robin Hood linear probing.
+ * A value is probed linearly from its home cell, and while it is being inserted it takes the cell of any value
+ * that is closer to its own home cell ("takes from the rich"), so the probing distances of all the values stay
+ * short and even. A search can stop as soon as it meets a value that is closer to its home than the searched
+ * value would be.
+ * Deletion shifts the following values of the cluster one cell back instead of leaving a deleted cell, so the
+ * table never has deleted cells, and it stays fast with load factors of 0.9 and higher.
+ * @author eden horka
+ */
+
+public class RobinHoodHashSet extends SimpleHashSet {
+
+    /* The default upper load factor of a robin hood hash set. */
+    protected static final float DEFAULT_ROBIN_HOOD_UPPER_CAPACITY = 0.9f ;
+
+    /* The values of the cells (null for an empty cell). */
+    private java.lang.String[] values ;
+
+    /* The cached hash codes of the values of the cells. */
+    private int[] hashes ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of a robin hood hash set.
+     * Builds a new, empty table with default initial capacity and lower load factor, and an upper load factor
+     * of 0.9.
+     */
+    public RobinHoodHashSet() {
+        super(DEFAULT_ROBIN_HOOD_UPPER_CAPACITY, DEFAULT_LOWER_CAPACITY);
+        reset();
+    }
+
+    /**
+     * A constructor of a robin hood hash set.
+     * Builds a new, empty table with the specified load factors, and the default initial capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table (at most 1).
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     */
+    public RobinHoodHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+        reset();
+    }
+
+    /**
+     * A constructor of a robin hood hash set.
+     * Builds a new, empty table with the specified load factors and hash function, and the default initial
+     * capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table (at most 1).
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     */
+    public RobinHoodHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction) {
+        super(upperLoadFactor, lowerLoadFactor, hashFunction);
+        reset();
+    }
+
+    /**
+     * A constructor of a robin hood hash set.
+     * Builds the hash set with the given elements (duplicate values should be ignored).
+     * The table is allocated once, with a capacity that fits all the elements, and filled in a single pass.
+     * The new table has the default load factors.
+     *
+     * @param data - Values to add to the set.
+     */
+    public RobinHoodHashSet(java.lang.String[] data) {
+        super(DEFAULT_ROBIN_HOOD_UPPER_CAPACITY, DEFAULT_LOWER_CAPACITY);
+        setInitialCapacity(data.length);
+        reset();
+        addAll(data);
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Look for a specified value in the set.
+     *
+     * @param searchVal - Value to search for
+     * @return True - if searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        return ( searchVal != null ) && ( findValue(searchVal, hash(searchVal)) != -1 ) ;
+    }
+
+    /**
+     * Clamps hashing indices to fit within the current table capacity.
+     * @param hashIndex -  the index before clamping.
+     * @return an index properly clamped.
+     */
+    protected int clamp(int hashIndex) {
+        return hashIndex & ( capacity - 1 ) ;
+    }
+
+    /* looks for the value from its home cell, and if it wasn't found, inserts it in the cell where the search
+     * stopped, pushing the rest of the cluster forward. */
+    protected boolean insertIfAbsent(java.lang.String value, int hash) {
+        int index = clamp(hash);
+        for (int distance = 0; distance < capacity; distance++) {
+            if (( values[index] == null ) || ( distanceFromHome(index) < distance )) {
+                place(value, hash, index, distance);
+                return true;
+            }
+            if (( hashes[index] == hash ) && values[index].equals(value)) {
+                return false;
+            }
+            index = clamp(index + 1);
+        }
+        return false;
+    }
+
+    /* looks for the value, and if it was found, shifts the rest of its cluster one cell back over it. */
+    protected boolean removeIfPresent(java.lang.String value, int hash) {
+        int index = findValue(value, hash);
+        if ( index == -1 ) {
+            return false;
+        }
+        int next = clamp(index + 1);
+        // a value that is not in its home cell can move one cell closer to it
+        while (( values[next] != null ) && ( distanceFromHome(next) != 0 )) {
+            values[index] = values[next];
+            hashes[index] = hashes[next];
+            index = next;
+            next = clamp(next + 1);
+        }
+        values[index] = null;
+        return true;
+    }
+
+    /* returns -1 if the value wasn't found, else returns its index in the hash set. */
+    private int findValue(java.lang.String searchVal, int hash) {
+        int index = clamp(hash);
+        for (int distance = 0; distance < capacity; distance++) {
+            // the value would have taken the cell of any value that is closer to its home
+            if (( values[index] == null ) || ( distanceFromHome(index) < distance )) {
+                return -1;
+            }
+            if (( hashes[index] == hash ) && values[index].equals(searchVal)) {
+                return index;
+            }
+            index = clamp(index + 1);
+        }
+        return -1;
+    }
+
+    /* returns the number of cells between the value in the given index and its home cell. */
+    private int distanceFromHome(int index) {
+        return clamp(index - clamp(hashes[index]));
+    }
+
+    /* places a value that is not in the table in the given index (that is at the given distance from its home),
+     * and moves the values that it displaces forward. */
+    private void place(java.lang.String value, int hash, int index, int distance) {
+        while ( values[index] != null ) {
+            int residentDistance = distanceFromHome(index);
+            if ( residentDistance < distance ) {
+                java.lang.String residentValue = values[index];
+                int residentHash = hashes[index];
+                values[index] = value;
+                hashes[index] = hash;
+                value = residentValue;
+                hash = residentHash;
+                distance = residentDistance;
+            }
+            index = clamp(index + 1);
+            distance++;
+        }
+        values[index] = value;
+        hashes[index] = hash;
+    }
+
+    /* Rehashes all the elements into new arrays of the current capacity. */
+    private void reHash() {
+        java.lang.String[] oldValues = values;
+        int[] oldHashes = hashes;
+        reset();
+        for (int i = 0; i < oldValues.length; i++) {
+            if ( oldValues[i] != null ) {
+                place(oldValues[i], oldHashes[i], clamp(oldHashes[i]), 0);
+            }
+        }
+    }
+
+    /* allocates new empty arrays of the current capacity. */
+    private void reset() {
+        values = new java.lang.String[capacity];
+        hashes = new int[capacity];
+    }
+
+    /* Changes the capacity of the hash set and rehashes all the elements. */
+    protected void resize(int newCapacity) {
+        capacity = newCapacity;
+        reHash();
+    }
+
+    /* Check if the current load factor exceeds the upper or the lower border
+     * and if it does, then rehashes the hash set. */
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
+            minimizeSet();
+        }
+    }
+
+    protected void reHashAfterAddition() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= upLoadFactor ) {
+            enlargeSet();
+        }
+    }
+
+    /* Minimize the capacity (size) of the hash set. */
+    private void minimizeSet() {
+        if ( capacity >= 2 ) {
+            resize(capacity / 2);
+        }
+    }
+
+    /* Enlarge the capacity (size) of the hash set. */
+    private void enlargeSet() {
+        resize(2 * capacity);
+    }
+}
\ No newline at end of file
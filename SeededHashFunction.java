@@ -0,0 +1,79 @@
+import java.security.SecureRandom;
+
+/**
+ * A seeded, well mixed hash function for strings (in the style of wyhash).
+ * Strings that share the same hashCode() (such as the strings of data1.txt) get unrelated hash codes, and
+ * since the seed is random by default, colliding inputs can not be prepared in advance.
+ * @author eden horka
+ */
+
+public class SeededHashFunction implements HashFunction {
+
+    /*== The mixing constants of the function: ==*/
+    private static final long SECRET0 = 0xa0761d6478bd642fL;
+
+    private static final long SECRET1 = 0xe7037ed1a0b428dbL;
+
+    private static final long SECRET2 = 0x8ebc6af09c88c6e3L;
+
+    private static final long SECRET3 = 0x589965cc75374cc3L;
+
+    /* Number of bits in a char. */
+    private static final int CHAR_BITS = 16;
+
+    /* A generator of the random seeds. */
+    private static final SecureRandom SEED_GENERATOR = new SecureRandom();
+
+    /* The seed of this hash function. */
+    private final long seed;
+
+    /**
+     * Constructs a new hash function with a random seed.
+     */
+    public SeededHashFunction() {
+        this(SEED_GENERATOR.nextLong());
+    }
+
+    /**
+     * Constructs a new hash function with a given seed (two functions with the same seed give the same
+     * hash codes).
+     * @param seed - the seed of the hash function.
+     */
+    public SeededHashFunction(long seed) {
+        this.seed = seed ^ SECRET0 ;
+    }
+
+    /**
+     * Computes the hash code of a given string.
+     * @param value - the string to hash (not null).
+     * @return the hash code of the string.
+     */
+    public int hash(java.lang.String value) {
+        int length = value.length();
+        long h = seed ;
+        int i = 0;
+        // mixes four chars (64 bits) at a time
+        for (; i + 4 <= length; i += 4) {
+            long block = value.charAt(i) | ((long) value.charAt(i + 1) << CHAR_BITS)
+                    | ((long) value.charAt(i + 2) << 2 * CHAR_BITS)
+                    | ((long) value.charAt(i + 3) << 3 * CHAR_BITS);
+            h ^= mix(block ^ SECRET1, h ^ SECRET2);
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += CHAR_BITS) {
+            tail |= (long) value.charAt(i) << shift ;
+        }
+        h ^= mix(tail ^ SECRET1, h ^ SECRET2);
+        return fold(mix(h ^ SECRET3, length ^ SECRET1));
+    }
+
+    /* Multiplies two longs into 128 bits and returns the xor of the high and low halves. */
+    static long mix(long a, long b) {
+        return (a * b) ^ Math.multiplyHigh(a, b) ;
+    }
+
+    /* Folds a 64 bits hash into 32 bits. */
+    static int fold(long h) {
+        return (int) (h ^ (h >>> 32)) ;
+    }
+}
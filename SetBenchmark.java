@@ -0,0 +1,284 @@
+/**
+ * A benchmark harness for SimpleSet implementations, in the spirit of JMH (which can't be added to this
+ * project without a build system): every iteration gets a fresh set, built outside of the timed code, the
+ * first iterations only warm up the JIT compiler, every result goes into a Blackhole, and a run can be forked
+ * to a new JVM so the profile of one set doesn't leak into the measurement of another.
+ * An iteration performs one operation per key, timed in batches of BATCH_SIZE operations, and a run reports
+ * the throughput, percentiles of the latency per operation (the average of each batch, since a single
+ * operation is shorter than the resolution of System.nanoTime()), and the bytes allocated per operation.
+ * @author eden horka
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public class SetBenchmark {
+
+    /**
+     * The workloads of the benchmark.
+     */
+    public enum Workload {
+        /** Adds every key to an empty set. */
+        ADD,
+        /** Searches every key in a set of all the keys. */
+        CONTAINS_HIT,
+        /** Searches a missing key for every key in a set of all the keys. */
+        CONTAINS_MISS,
+        /** Deletes every key from a set of all the keys. */
+        DELETE,
+        /** A mix on a set of all the keys: of every 4 operations, 2 searches (a hit and a miss), 1 addition
+         * of a missing key and 1 deletion of a key. */
+        MIXED
+    }
+
+    /* The default number of iterations that only warm up. */
+    private static final int DEFAULT_WARMUP_ITERATIONS = 5 ;
+
+    /* The default number of measured iterations. */
+    private static final int DEFAULT_MEASUREMENT_ITERATIONS = 10 ;
+
+    /* The number of operations that are timed together. */
+    private static final int BATCH_SIZE = 64 ;
+
+    /* The number of operations of a cycle of the mixed workload. */
+    private static final int MIX_CYCLE = 4 ;
+
+    /* The bean that counts the bytes allocated by a thread (null if the JVM doesn't support it). */
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean() ;
+
+    /* The number of iterations that only warm up. */
+    private final int warmupIterations ;
+
+    /* The number of measured iterations. */
+    private final int measurementIterations ;
+
+    /* The sink of the results of the operations. */
+    private final Blackhole blackhole = new Blackhole() ;
+
+    /* The bytes allocated by the operations of the last iteration. */
+    private long iterationBytes ;
+
+    /**
+     * Builds a harness with the default number of warmup and measured iterations.
+     */
+    public SetBenchmark() {
+        this(DEFAULT_WARMUP_ITERATIONS, DEFAULT_MEASUREMENT_ITERATIONS) ;
+    }
+
+    /**
+     * Builds a harness with the given number of warmup and measured iterations.
+     * @param warmupIterations - the number of iterations that only warm up.
+     * @param measurementIterations - the number of measured iterations (at least 1).
+     */
+    public SetBenchmark(int warmupIterations, int measurementIterations) {
+        if (( warmupIterations < 0 ) || ( measurementIterations < 1 )) {
+            throw new IllegalArgumentException("Invalid number of iterations.") ;
+        }
+        this.warmupIterations = warmupIterations ;
+        this.measurementIterations = measurementIterations ;
+    }
+
+    /**
+     * Runs a workload on fresh sets of the given factory.
+     * @param name - the name of the set, for the result.
+     * @param factory - builds a new, empty set for every iteration.
+     * @param workload - the workload to run.
+     * @param keys - the keys of the workload (not empty).
+     * @param misses - keys that are not in keys, at least as many as keys.
+     * @return the result of the measured iterations.
+     */
+    public Result run(String name, Supplier<? extends SimpleSet> factory, Workload workload, String[] keys,
+                      String[] misses) {
+        if (( keys.length == 0 ) || ( misses.length < keys.length )) {
+            throw new IllegalArgumentException("There must be keys, and a missing key for each key.") ;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(factory.get(), workload, keys, misses, null) ;
+        }
+        int batchesPerIteration = ( keys.length + BATCH_SIZE - 1 ) / BATCH_SIZE ;
+        long[] latencies = new long[batchesPerIteration * measurementIterations] ;
+        long totalTime = 0 ;
+        long totalBytes = 0 ;
+        for (int i = 0; i < measurementIterations; i++) {
+            long[] iterationLatencies = new long[batchesPerIteration] ;
+            totalTime += iteration(factory.get(), workload, keys, misses, iterationLatencies) ;
+            totalBytes += iterationBytes ;
+            System.arraycopy(iterationLatencies, 0, latencies, i * batchesPerIteration, batchesPerIteration) ;
+        }
+        Arrays.sort(latencies) ;
+        long operations = (long) keys.length * measurementIterations ;
+        return new Result(name, workload, operations, totalTime, latencies,
+                ( ALLOCATION_BEAN == null ) ? -1 : ((double) totalBytes) / operations) ;
+    }
+
+    /* fills the set if the workload needs it (untimed), runs the workload on it, and returns the time of the
+     * operations in nanoseconds (and keeps the bytes they allocated in iterationBytes). If latencies isn't
+     * null, the average latency of every batch is kept in it. */
+    private long iteration(SimpleSet set, Workload workload, String[] keys, String[] misses,
+                           long[] latencies) {
+        if ( workload != Workload.ADD ) {
+            for ( String key: keys ) {
+                set.add(key) ;
+            }
+        }
+        long total = 0 ;
+        long bytesBefore = allocatedBytes() ;
+        for (int from = 0, batch = 0; from < keys.length; from += BATCH_SIZE, batch++) {
+            int to = Math.min(from + BATCH_SIZE, keys.length) ;
+            long start = System.nanoTime() ;
+            runBatch(set, workload, keys, misses, from, to) ;
+            long time = System.nanoTime() - start ;
+            total += time ;
+            if ( latencies != null ) {
+                latencies[batch] = time / ( to - from ) ;
+            }
+        }
+        iterationBytes = allocatedBytes() - bytesBefore ;
+        blackhole.publish() ;
+        return total ;
+    }
+
+    /* runs the operations of the workload on the keys from (including) to (excluding). */
+    private void runBatch(SimpleSet set, Workload workload, String[] keys, String[] misses, int from,
+                          int to) {
+        switch ( workload ) {
+            case ADD:
+                for (int i = from; i < to; i++) {
+                    blackhole.consume(set.add(keys[i])) ;
+                }
+                break ;
+            case CONTAINS_HIT:
+                for (int i = from; i < to; i++) {
+                    blackhole.consume(set.contains(keys[i])) ;
+                }
+                break ;
+            case CONTAINS_MISS:
+                for (int i = from; i < to; i++) {
+                    blackhole.consume(set.contains(misses[i])) ;
+                }
+                break ;
+            case DELETE:
+                for (int i = from; i < to; i++) {
+                    blackhole.consume(set.delete(keys[i])) ;
+                }
+                break ;
+            default:
+                for (int i = from; i < to; i++) {
+                    switch ( i % MIX_CYCLE ) {
+                        case 0:
+                            blackhole.consume(set.contains(keys[i])) ;
+                            break ;
+                        case 1:
+                            blackhole.consume(set.contains(misses[i])) ;
+                            break ;
+                        case 2:
+                            blackhole.consume(set.add(misses[i])) ;
+                            break ;
+                        default:
+                            blackhole.consume(set.delete(keys[i])) ;
+                    }
+                }
+        }
+    }
+
+    /* returns the number of bytes allocated by the current thread so far (0 if it can't be counted). */
+    @SuppressWarnings("deprecation")
+    private static long allocatedBytes() {
+        if ( ALLOCATION_BEAN == null ) {
+            return 0 ;
+        }
+        return ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) ;
+    }
+
+    /* returns the bean that counts the bytes allocated by a thread, or null if the JVM doesn't support it. */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean() ;
+        if (( bean instanceof com.sun.management.ThreadMXBean )
+                && (( com.sun.management.ThreadMXBean ) bean).isThreadAllocatedMemorySupported() ) {
+            com.sun.management.ThreadMXBean allocationBean = ( com.sun.management.ThreadMXBean ) bean ;
+            allocationBean.setThreadAllocatedMemoryEnabled(true) ;
+            return allocationBean ;
+        }
+        return null ;
+    }
+
+    /**
+     * The result of a run of a workload on a set.
+     */
+    public static class Result {
+
+        /* The name of the set. */
+        private final String name ;
+
+        /* The workload of the run. */
+        private final Workload workload ;
+
+        /* The number of measured operations. */
+        private final long operations ;
+
+        /* The time of the measured operations in nanoseconds. */
+        private final long time ;
+
+        /* The sorted average latencies of the measured batches, in nanoseconds per operation. */
+        private final long[] latencies ;
+
+        /* The bytes allocated per operation (-1 if the JVM can't count them). */
+        private final double bytesPerOperation ;
+
+        /* builds a result of the given measurements. */
+        private Result(String name, Workload workload, long operations, long time, long[] latencies,
+                       double bytesPerOperation) {
+            this.name = name ;
+            this.workload = workload ;
+            this.operations = operations ;
+            this.time = time ;
+            this.latencies = latencies ;
+            this.bytesPerOperation = bytesPerOperation ;
+        }
+
+        /**
+         * @return the number of operations per millisecond.
+         */
+        public double throughput() {
+            return operations * 1e6 / Math.max(1, time) ;
+        }
+
+        /**
+         * @param percentile - a percentile between 0 and 100.
+         * @return the latency per operation (in nanoseconds) of the given percentile of the batches.
+         */
+        public long latency(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1 ;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] ;
+        }
+
+        /**
+         * @return the bytes allocated per operation (-1 if the JVM can't count them).
+         */
+        public double bytesPerOperation() {
+            return bytesPerOperation ;
+        }
+
+        /**
+         * @return the rate of allocation, in megabytes per second (-1 if the JVM can't count it).
+         */
+        public double allocationRate() {
+            if ( bytesPerOperation < 0 ) {
+                return -1 ;
+            }
+            return bytesPerOperation * operations / Math.max(1, time) * 1e9 / ( 1 << 20 ) ;
+        }
+
+        /**
+         * @return a line of the result: the set, the workload, the throughput (operations per millisecond),
+         * the p50, p90, p99 and p99.9 latencies (nanoseconds per operation), the bytes allocated per
+         * operation and the rate of allocation (megabytes per second).
+         */
+        public String toString() {
+            return String.format("%s - %s: %.1f ops/ms, p50 %d ns, p90 %d ns, p99 %d ns, p99.9 %d ns, "
+                            + "%.1f B/op, %.1f MB/s", name, workload, throughput(), latency(50), latency(90),
+                    latency(99), latency(99.9), bytesPerOperation, allocationRate()) ;
+        }
+    }
+}
\ No newline at end of file
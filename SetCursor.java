@@ -0,0 +1,20 @@
+/**
+ * A cursor over the elements of a set: a single object that moves from one element to the next, so a
+ * traversal allocates nothing per element (unlike an Iterator of a bucket, or boxing in a stream).
+ * A cursor starts before the first element, and the set must not be changed while it is used.
+ * @author eden horka
+ */
+
+public interface SetCursor {
+
+    /**
+     * Moves the cursor to the next element of the set.
+     * @return true if the cursor is on an element, false if there are no more elements.
+     */
+    boolean advance();
+
+    /**
+     * @return the element the cursor is on (null before the first advance, and after the last one).
+     */
+    java.lang.String value();
+}
\ No newline at end of file
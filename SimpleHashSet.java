@@ -1,37 +1,32 @@
 /**
- * An abstract class represents a simple hash set.
+ * An abstract class represents a simple hash set (of strings).
+ * A hash set can report its statistics (probe lengths, chains, tombstones, rehashes and load factor) as a
+ * snapshot, or through JMX. The probes and rehashes are recorded only with -Dhashset.statistics=true.
  * @author eden horka
  */
 
-public abstract class SimpleHashSet implements SimpleSet{
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
-    /* The default lower load factor of the hash table. */
-    protected static final float DEFAULT_LOWER_CAPACITY = 0.25f ;
-    /* The default upper load factor of the hash table. */
-    protected static final float DEFAULT_HIGHER_CAPACITY = 0.75f ;
-    /* The default size of the hash table. */
-    protected static final int INITIAL_CAPACITY = 16 ;
+public abstract class SimpleHashSet extends BaseHashSet implements SimpleSet{
 
-    /* The current number of elements in the hash table. */
-    protected int numOfElements ;
-    /* The size of the hash table. */
-    protected int capacity ;
+    /* The default hash function of the hash table (the strings' own hashCode()). */
+    protected static final HashFunction DEFAULT_HASH_FUNCTION = new DefaultHashFunction();
 
-    /* The current load factor of the hash table. */
-    protected float loadFactor ;
-    /* The lower load factor of the hash table. */
-    protected float lowLoadFactor ;
-    /* The upper load factor of the hash table. */
-    protected float upLoadFactor ;
+    /* The hash function that maps the strings to the cells of the hash table. */
+    protected HashFunction hashFunction ;
+
+    /* The recorder of the probes and the rehashes of the set (null unless HashSetStatistics.ENABLED). */
+    protected final StatisticsRecorder recorder =
+            HashSetStatistics.ENABLED ? new StatisticsRecorder() : null ;
 
     /**
      * A default constructor of a simple hash set.
      */
     public SimpleHashSet() {
-        numOfElements = 0;
-        capacity = INITIAL_CAPACITY ;
-        lowLoadFactor = DEFAULT_LOWER_CAPACITY;
-        upLoadFactor = DEFAULT_HIGHER_CAPACITY;
+        hashFunction = DEFAULT_HASH_FUNCTION;
     }
 
     /**
@@ -40,47 +35,46 @@ public abstract class SimpleHashSet implements SimpleSet{
      * @param lowerLoadFactor the upper load factor before rehashing
      */
     public SimpleHashSet(float upperLoadFactor,float lowerLoadFactor){
-        numOfElements = 0 ;
-        capacity = INITIAL_CAPACITY ;
-        lowLoadFactor = lowerLoadFactor ;
-        upLoadFactor = upperLoadFactor ;
-
+        super(upperLoadFactor, lowerLoadFactor);
+        hashFunction = DEFAULT_HASH_FUNCTION;
     }
 
     /**
-     * @return The current capacity (number of cells) of the table.
-     */
-    public int capacity() {
-        return capacity ;
-    }
-
-    /**
-     * Clamps hashing indices to fit within the current table capacity.
-     * @param index -  the index before clamping.
-     * @return an index properly clamped.
-     */
-    protected abstract int clamp(int index);
-
-    /**
-     * @return the current lower load factor of the hash set.
+     * Constructs a new hash set with initial capacity and a given hash function.
+     * @param upperLoadFactor the upper load factor before rehashing
+     * @param lowerLoadFactor the upper load factor before rehashing
+     * @param hashFunction the hash function of the strings (for example, a SeededHashFunction to resist
+     *                     inputs with many colliding hashCode() values)
      */
-    protected float getLowerLoadFactor(){
-        return lowLoadFactor ;
+    public SimpleHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction){
+        this(upperLoadFactor, lowerLoadFactor);
+        if ( hashFunction != null ) {
+            this.hashFunction = hashFunction;
+        }
     }
 
     /**
-     * @return the current upper load factor of the hash set.
+     * Computes the hash code of a given string with the hash function of this set.
+     * @param value - the string to hash (not null).
+     * @return the hash code of the string.
      */
-    protected float getUpperLoadFactor(){
-        return upLoadFactor ;
+    protected int hash(java.lang.String value) {
+        return hashFunction.hash(value) ;
     }
 
     /**
      * Add a specified element to the set if it's not already in it.
+     * The value is hashed once, and its chain (or probing sequence) is walked once.
      * @param newValue New value to add to the set
      * @return False iff newValue already exists in the set
      */
-    public abstract boolean add(java.lang.String newValue);
+    public boolean add(java.lang.String newValue) {
+        if (( newValue == null ) || ( ! insertIfAbsent(newValue, hash(newValue)) )) {
+            return false ;
+        }
+        elementAdded();
+        return true ;
+    }
 
     /**
      * Look for a specified value in the set.
@@ -89,22 +83,187 @@ public abstract class SimpleHashSet implements SimpleSet{
      */
     public abstract boolean contains(java.lang.String searchVal);
 
+    /**
+     * Adds all the given values to the set (null and duplicate values are ignored).
+     * The table is enlarged once, up front, to fit all the values, and then each value is placed in a single
+     * walk of its chain (or probing sequence) without further rehashing.
+     * @param values - the values to add.
+     * @return true iff at least one of the values was added to the set.
+     */
+    public boolean addAll(java.lang.String[] values) {
+        if ( values == null ) {
+            return false ;
+        }
+        ensureCapacity(numOfElements + values.length);
+        int oldNumOfElements = numOfElements ;
+        for ( java.lang.String value: values ) {
+            if (( value != null ) && insertIfAbsent(value, hash(value)) ) {
+                numOfElements++ ;
+            }
+        }
+        return finishAddAll(oldNumOfElements) ;
+    }
+
+    /**
+     * Adds all the given values to the set (null and duplicate values are ignored).
+     * If the values are a collection, the table is enlarged once, up front, to fit all of them, and then each
+     * value is placed without further rehashing. Otherwise they are added one by one.
+     * @param values - the values to add.
+     * @return true iff at least one of the values was added to the set.
+     */
+    public boolean addAll(java.lang.Iterable<java.lang.String> values) {
+        if ( values == null ) {
+            return false ;
+        }
+        if ( ! ( values instanceof java.util.Collection ) ) {
+            boolean isChanged = false ;
+            for ( java.lang.String value: values ) {
+                isChanged = add(value) || isChanged ;
+            }
+            return isChanged ;
+        }
+        ensureCapacity(numOfElements + ((java.util.Collection<java.lang.String>) values).size());
+        int oldNumOfElements = numOfElements ;
+        for ( java.lang.String value: values ) {
+            if (( value != null ) && insertIfAbsent(value, hash(value)) ) {
+                numOfElements++ ;
+            }
+        }
+        return finishAddAll(oldNumOfElements) ;
+    }
+
     /**
      * Remove the input element from the set.
+     * The value is hashed once, and its chain (or probing sequence) is walked once.
      * @param toDelete Value to delete
      * @return True iff toDelete is found and deleted
      */
-    public abstract boolean delete(java.lang.String toDelete);
+    public boolean delete(java.lang.String toDelete) {
+        if (( toDelete == null ) || ( ! removeIfPresent(toDelete, hash(toDelete)) )) {
+            return false ;
+        }
+        elementDeleted();
+        return true ;
+    }
+
+    /**
+     * Takes a snapshot of the statistics of the set. The probe lengths and the rehashes are recorded only
+     * with -Dhashset.statistics=true (else they are 0), and only by the sets that record them (OpenHashSet
+     * and ClosedHashSet).
+     * @return the statistics of the set.
+     */
+    public HashSetStatistics statistics() {
+        long[] chainLengths = chainLengths() ;
+        if ( recorder != null ) {
+            return recorder.snapshot(chainLengths, numOfTombstones(), numOfElements, capacity) ;
+        }
+        return new HashSetStatistics(new long[HashSetStatistics.MAX_LENGTH + 1],
+                new long[HashSetStatistics.MAX_LENGTH + 1], chainLengths, numOfTombstones(), 0, 0,
+                numOfElements, capacity) ;
+    }
+
+    /**
+     * Registers the statistics of the set in the platform MBean server, under the name
+     * "SimpleHashSet:type=(the class of the set),name=(the given name)". Every attribute is read from a new
+     * snapshot, on the thread of the JMX client, so it may be inconsistent while the set is being changed.
+     * @param name - the name of the set.
+     * @return the name of the registered MBean (to unregister it from the platform MBean server).
+     * @throws JMException if the MBean can't be registered (for example, if the name is already taken).
+     */
+    public ObjectName registerStatistics(java.lang.String name) throws JMException {
+        ObjectName objectName = new ObjectName("SimpleHashSet:type=" + getClass().getSimpleName() + ",name="
+                + ObjectName.quote(name)) ;
+        ManagementFactory.getPlatformMBeanServer().registerMBean(
+                new StandardMBean(new LiveStatistics(this), HashSetStatisticsMXBean.class, true), objectName);
+        return objectName ;
+    }
+
+    /**
+     * @return the histogram of the lengths of the chains of the table (see HashSetStatistics), all 0 for a
+     * table that doesn't report them.
+     */
+    protected long[] chainLengths() {
+        return new long[HashSetStatistics.MAX_LENGTH + 1] ;
+    }
 
     /**
-     * @return The number of elements currently in the set
+     * @return the number of deleted cells of the table (0 for a table without them).
      */
-    public int size() {
-        return numOfElements ;
+    protected int numOfTombstones() {
+        return 0 ;
     }
 
-    /* returns true if a given index is valid, otherwise false. */
-    protected boolean isIndexValid(int index) {
-        return  (( index >= 0 ) && ( index < capacity )) ;
+    /**
+     * Looks for a value in its chain (or probing sequence) in a single walk, and inserts it at the first
+     * free place if it is not found. Does not update the number of elements or rehash.
+     * @param value - the value to insert (not null).
+     * @param hash - the hash code of the value.
+     * @return true iff the value was not in the table and was inserted.
+     */
+    protected abstract boolean insertIfAbsent(java.lang.String value, int hash);
+
+    /**
+     * Looks for a value in its chain (or probing sequence) in a single walk, and removes it if it is found.
+     * Does not update the number of elements or rehash.
+     * @param value - the value to remove (not null).
+     * @param hash - the hash code of the value.
+     * @return true iff the value was in the table and was removed.
+     */
+    protected abstract boolean removeIfPresent(java.lang.String value, int hash);
+
+    /* The MXBean of the statistics of a set: every attribute is read from a new snapshot. */
+    private static class LiveStatistics implements HashSetStatisticsMXBean {
+
+        /* The set of the statistics. */
+        private final SimpleHashSet set ;
+
+        /* builds the MXBean of the statistics of the given set. */
+        LiveStatistics(SimpleHashSet set) {
+            this.set = set ;
+        }
+
+        public long[] getHitProbes() {
+            return set.statistics().getHitProbes() ;
+        }
+
+        public long[] getMissProbes() {
+            return set.statistics().getMissProbes() ;
+        }
+
+        public long[] getChainLengths() {
+            return set.statistics().getChainLengths() ;
+        }
+
+        public double getAverageHitProbes() {
+            return set.statistics().getAverageHitProbes() ;
+        }
+
+        public double getAverageMissProbes() {
+            return set.statistics().getAverageMissProbes() ;
+        }
+
+        public int getTombstones() {
+            return set.statistics().getTombstones() ;
+        }
+
+        public long getRehashCount() {
+            return set.statistics().getRehashCount() ;
+        }
+
+        public long getRehashTimeNanos() {
+            return set.statistics().getRehashTimeNanos() ;
+        }
+
+        public int getSize() {
+            return set.statistics().getSize() ;
+        }
+
+        public int getCapacity() {
+            return set.statistics().getCapacity() ;
+        }
+
+        public float getLoadFactor() {
+            return set.statistics().getLoadFactor() ;
+        }
     }
 }
\ No newline at end of file
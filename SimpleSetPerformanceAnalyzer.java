@@ -1,19 +1,33 @@
 /**
  * This class measures the run-time performances of different of the following data structures:
- * OpenHashSet, ClosedHashSet, Java’s TreeSet1 ,Java’s LinkedList and Java’s HashSet.
+ * OpenHashSet, ClosedHashSet, Java’s TreeSet1 ,Java’s LinkedList, Java’s HashSet, RobinHoodHashSet,
+ * SwissHashSet and OffHeapStringSet, and of IntHashSet and LongHashSet on numeric ids. The data is read
+ * from the data files, or generated by a WorkloadGenerator (of any size).
  * @author eden horka
  */
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SimpleSetPerformanceAnalyzer {
 
     /**
      * Number of different sets to test
      */
-    public static final int NUM_OF_SETS = 5;
+    public static final int NUM_OF_SETS = 8;
 
     /**
      * First string from data1 to test the contains method.
@@ -36,6 +50,19 @@ public class SimpleSetPerformanceAnalyzer {
     /* Number of rounds to analyze time more accurately. */
     private static final int ROUNDS = 1000;
 
+    /* Number of rounds each thread searches the data in the multi-threaded mode. */
+    private static final int CONCURRENT_ROUNDS = 20;
+
+    /* In the multi-threaded mode, every WRITE_PERIOD'th operation of a thread deletes and adds back a value
+     * (so the set is read-mostly). */
+    private static final int WRITE_PERIOD = 16;
+
+    /* The number of ids added to each set in the numeric mode (unless given as a program argument). */
+    private static final int NUMERIC_SIZE = 1 << 20;
+
+    /* The seed of the random ids of the numeric mode (so every run adds the same ids). */
+    private static final long NUMERIC_SEED = 42;
+
     /*== Indexes of the different sets in the sets array : ==*/
     private static final int OPEN_HASH = 0;
 
@@ -47,6 +74,12 @@ public class SimpleSetPerformanceAnalyzer {
 
     private static final int HASH_SET = 4;
 
+    private static final int ROBIN_HOOD = 5;
+
+    private static final int SWISS = 6;
+
+    private static final int OFF_HEAP = 7;
+
     /* Message to print in case of an invalid input. */
     private static final String INVALID_MSG = "Input is invalid.";
 
@@ -56,6 +89,89 @@ public class SimpleSetPerformanceAnalyzer {
     /* A string represents contains method. */
     private static final String CONTAINS = "contains";
 
+    /* The program argument that runs the multi-threaded mode. */
+    private static final String CONCURRENT = "concurrent";
+
+    /* The program argument that runs the mixed mode (optionally followed by the percent of searches, the
+     * number of seconds per run, the maximal number of threads and VIRTUAL to run virtual threads). */
+    private static final String MIXED = "mixed";
+
+    /* The program argument of the mixed mode that runs virtual threads instead of platform threads. */
+    private static final String VIRTUAL = "virtual";
+
+    /* The default percent of the operations of the mixed mode that are searches (the rest are additions and
+     * deletions, half each). */
+    private static final int DEFAULT_READ_PERCENT = 95;
+
+    /* The default duration of a run of the mixed mode, in seconds. */
+    private static final int DEFAULT_MIXED_SECONDS = 1;
+
+    /* A thread of the mixed mode checks the clock once every MIXED_CHECK_PERIOD operations. */
+    private static final int MIXED_CHECK_PERIOD = 256;
+
+    /*== Indexes of the operations in the histograms of the mixed mode: ==*/
+    private static final int MIXED_CONTAINS = 0;
+
+    private static final int MIXED_ADD = 1;
+
+    private static final int MIXED_DELETE = 2;
+
+    /* The names of the operations of the mixed mode, by their indexes. */
+    private static final String[] mixedOperations = {CONTAINS, ADD, "delete"};
+
+    /* The program argument that runs the loading mode (optionally followed by the name of a data file). */
+    private static final String LOAD = "load";
+
+    /* The program argument that runs the analyzer on the first data file (whose strings share a few hash
+     * codes) instead of the second one. */
+    private static final String FIRST_DATA = "data1";
+
+    /* The program argument that runs the numeric mode (optionally followed by the number of ids). */
+    private static final String NUMERIC = "numeric";
+
+    /* The program argument that runs the benchmark mode (optionally followed by the name of a data file and
+     * the number of forks). */
+    private static final String BENCH = "bench";
+
+    /* The program argument of a forked JVM of the benchmark mode (followed by the index of the set and the
+     * name of the data file). */
+    private static final String BENCH_FORK = "bench-fork";
+
+    /* The default number of new JVMs per set in the benchmark mode. */
+    private static final int DEFAULT_FORKS = 1;
+
+    /* The program argument that runs the generated mode (followed by the type of the keys, and optionally by
+     * the number of keys, the hit ratio, the Zipf exponent of the lookups and the seed). */
+    private static final String GENERATE = "generate";
+
+    /* The default number of keys of the generated mode, and of the benchmark mode with generated keys. */
+    private static final int GENERATED_SIZE = 100000;
+
+    /* The default probability of a lookup of the generated mode to be a key. */
+    private static final double DEFAULT_HIT_RATIO = 0.5;
+
+    /* The default seed of the generated keys (so every run generates the same keys). */
+    private static final long GENERATOR_SEED = 42;
+
+    /* The maximal number of lookups of the generated mode. */
+    private static final int MAX_LOOKUPS = 1 << 22;
+
+    /* The number of keys that are generated before they are added or searched together in the generated
+     * mode (so the generation of the keys is not timed, and the keys never take more memory than that). */
+    private static final int GENERATED_BATCH = 1 << 12;
+
+    /* The maximal number of keys added to the linked list in the generated mode (every addition searches the
+     * whole list). */
+    private static final int MAX_LINKED_LIST_SIZE = 100000;
+
+    /* The suffix that makes a key of the benchmark mode a missing key. */
+    private static final String MISS_SUFFIX = "~";
+
+    /*== The names of the data files: ==*/
+    private static final String DATA1_FILE = "data1.txt";
+
+    private static final String DATA2_FILE = "data2.txt";
+
     /*== represents the data number: ==*/
     private static final int DATA1 = 1;
 
@@ -63,7 +179,8 @@ public class SimpleSetPerformanceAnalyzer {
 
     /* Array of strings represents the name of the different set types in the sets array. */
     private static final String[] setTypes = {"open hash set", "closed hash set", "linked list", "tree set"
-            , "hash set"};
+            , "hash set", "robin hood hash set",
+            "swiss hash set", "off heap string set"};
 
     /*== Sets to test: ==*/
     private static OpenHashSet openHashSet = new OpenHashSet();
@@ -76,17 +193,48 @@ public class SimpleSetPerformanceAnalyzer {
 
     private static CollectionFacadeSet hashSet = new CollectionFacadeSet(new HashSet<String>());
 
+    private static RobinHoodHashSet robinHoodHashSet = new RobinHoodHashSet();
+
+    private static SwissHashSet swissHashSet = new SwissHashSet();
+
+    private static OffHeapStringSet offHeapStringSet = new OffHeapStringSet();
+
     /* An array of all the sets to test. */
-    private static SimpleSet[] sets = {openHashSet, closedHashSet, linkedList, treeSet, hashSet};
+    private static SimpleSet[] sets = {openHashSet, closedHashSet, linkedList, treeSet, hashSet,
+            robinHoodHashSet, swissHashSet, offHeapStringSet};
 
-    /* An array of stings represents the strings of the first data file. */
-    private static String[] data1Array = Ex3Utils.file2array("data1.txt");
+    /* Array of strings represents the name of the thread safe set types tested in the multi-threaded mode. */
+    private static final String[] concurrentSetTypes = {"concurrent open hash set",
+            "lock free closed hash set", "synchronized hash set"};
 
-    /* An array of stings represents the strings of the second data file. */
-    private static String[] data2Array = Ex3Utils.file2array("data2.txt");
+    /*== Indexes of the different sets in the numericSetTypes array : ==*/
+    private static final int INT_SET = 2;
 
+    private static final int LONG_SET = 3;
 
-    /* Analyzes the add method for a given number set and data, returns the average time.*/
+    /* Array of strings represents the name of the set types tested in the numeric mode (the string sets get
+     * the decimal strings of the ids). */
+    private static final String[] numericSetTypes = {"open hash set", "closed hash set", "int hash set",
+            "long hash set"};
+
+    /* Array of strings represents the name of every set type tested in the benchmark mode (the sets of the
+     * sets array, and then the other implementations). */
+    private static final String[] benchSetTypes = {"open hash set", "closed hash set", "linked list",
+            "tree set", "hash set", "robin hood hash set", "swiss hash set", "off heap string set",
+            "array closed hash set", "concurrent open hash set", "lock free closed hash set",
+            "adaptive hash set"};
+
+    /* The sink of the results of the measured operations. */
+    private static final Blackhole blackhole = new Blackhole();
+
+    /* An array of stings represents the strings of the second data file (read only by the modes that need
+     * it). */
+    private static String[] data2Array;
+
+
+    /* Analyzes the add method for a given number set and data, returns the average time in milliseconds.
+     * Every round adds the data to a new, empty set (the set of the last round is kept for the contains
+     * analysis). */
     private static long analyzeAdd(int setNum, String[] data) {
         if (data == null) {
             System.out.println(INVALID_MSG);
@@ -95,43 +243,600 @@ public class SimpleSetPerformanceAnalyzer {
         long start;
         long sumOfTimes = 0;
         for(int i=0;i<ROUNDS ; i++) {
-            start = System.currentTimeMillis();
+            SimpleSet set = newSet(setNum);
+            start = System.nanoTime();
             for (String str : data) {
-                sets[setNum].add(str);
+                blackhole.consume(set.add(str));
             }
-            sumOfTimes = sumOfTimes +  System.currentTimeMillis() - start ;
+            sumOfTimes = sumOfTimes + System.nanoTime() - start ;
+            sets[setNum] = set;
         }
-        System.out.println(sumOfTimes/ROUNDS);
-        return sumOfTimes/ROUNDS;
+        blackhole.publish();
+        System.out.println(sumOfTimes / ROUNDS / 1000000);
+        return sumOfTimes / ROUNDS / 1000000;
     }
 
-    /* Analyzes the contains method for a given set and string, returns the average time.*/
+    /* Analyzes the contains method for a given set and string, returns the average time in nanoseconds. The
+     * searches are timed together (a single search is shorter than the resolution of the clock). */
     private static long analyzeContains(int setNum, String str) {
         if (str == null) {
             System.out.println(INVALID_MSG);
             return -1;
         }
-        long start;
-        long sumOfTimes = 0;
         for (int i = 0; i < WARM_UP; i++) {
-            sets[setNum].contains(str);
+            blackhole.consume(sets[setNum].contains(str));
         }
+        long start = System.nanoTime();
         for (int i = 0; i < ROUNDS; i++) {
-            start = System.nanoTime();
-            sets[setNum].contains(str);
-            sumOfTimes = sumOfTimes + (System.nanoTime() - start);
+            blackhole.consume(sets[setNum].contains(str));
         }
+        long sumOfTimes = System.nanoTime() - start;
+        blackhole.publish();
         System.out.println(sumOfTimes / ROUNDS);
         return sumOfTimes / ROUNDS ;
     }
 
+    /* Returns a new, empty set of the given index in the sets array. */
+    private static SimpleSet newSet(int setNum) {
+        switch (setNum) {
+            case OPEN_HASH:
+                return new OpenHashSet();
+            case CLOSED_HASH:
+                return new ClosedHashSet();
+            case LINKED_LIST:
+                return new CollectionFacadeSet(new LinkedList<String>());
+            case TREE_SET:
+                return new CollectionFacadeSet(new TreeSet<String>());
+            case HASH_SET:
+                return new CollectionFacadeSet(new HashSet<String>());
+            case ROBIN_HOOD:
+                return new RobinHoodHashSet();
+            case SWISS:
+                return new SwissHashSet();
+            default:
+                return new OffHeapStringSet();
+        }
+    }
+
+    /* Returns a new, empty set of the given index in benchSetTypes. */
+    private static SimpleSet newBenchSet(int setNum) {
+        switch (setNum - NUM_OF_SETS) {
+            case 0:
+                return new ArrayClosedHashSet();
+            case 1:
+                return new ConcurrentOpenHashSet();
+            case 2:
+                return new LockFreeClosedHashSet();
+            case 3:
+                return new AdaptiveHashSet();
+            default:
+                return newSet(setNum);
+        }
+    }
+
+    /* Returns a missing key for every key: the key followed by as many MISS_SUFFIX as needed for it not to be
+     * one of the keys. */
+    private static String[] missingKeys(String[] keys) {
+        HashSet<String> present = new HashSet<String>(Arrays.asList(keys));
+        String[] misses = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            String miss = keys[i] + MISS_SUFFIX;
+            while (present.contains(miss)) {
+                miss = miss + MISS_SUFFIX;
+            }
+            misses[i] = miss;
+        }
+        return misses;
+    }
+
+    /* Runs every workload of the harness on fresh sets of the given index in benchSetTypes, in this JVM, and
+     * prints the results. */
+    private static void benchmarkSet(int setNum, String[] keys, String[] misses) {
+        SetBenchmark benchmark = new SetBenchmark();
+        for (SetBenchmark.Workload workload : SetBenchmark.Workload.values()) {
+            System.out.println(benchmark.run(benchSetTypes[setNum], () -> newBenchSet(setNum), workload, keys,
+                    misses));
+        }
+    }
+
+    /* Adds the given ids to a new set of the given index in numericSetTypes (a string set gets the decimal
+     * string of each id, converted as part of the operation), then searches each id and a missing id.
+     * Returns the time of the additions in milliseconds and the average time of a search in nanoseconds. */
+    private static long[] analyzeNumeric(int setNum, int[] ids) {
+        long found = 0;
+        long start = System.nanoTime();
+        long addTime;
+        if (setNum == INT_SET) {
+            IntHashSet set = new IntHashSet();
+            for (int id : ids) {
+                set.add(id);
+            }
+            addTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : ids) {
+                found += (set.contains(id) ? 1 : 0) + (set.contains(-id - 1) ? 1 : 0);
+            }
+        } else if (setNum == LONG_SET) {
+            LongHashSet set = new LongHashSet();
+            for (int id : ids) {
+                set.add((long) id);
+            }
+            addTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : ids) {
+                found += (set.contains((long) id) ? 1 : 0) + (set.contains(-id - 1L) ? 1 : 0);
+            }
+        } else {
+            SimpleSet set = (setNum == OPEN_HASH) ? new OpenHashSet() : new ClosedHashSet();
+            for (int id : ids) {
+                set.add(Integer.toString(id));
+            }
+            addTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id : ids) {
+                found += (set.contains(Integer.toString(id)) ? 1 : 0)
+                        + (set.contains(Integer.toString(-id - 1)) ? 1 : 0);
+            }
+        }
+        long searchTime = System.nanoTime() - start;
+        // every id is found and no missing id is (this also keeps the searches from being optimized away)
+        if (found != ids.length) {
+            System.out.println(INVALID_MSG);
+        }
+        return new long[]{addTime / 1000000, searchTime / (2L * ids.length)};
+    }
+
+    /* Returns the type of generated keys of the given name (ignoring case), or null if there is none. */
+    private static WorkloadGenerator.KeyType keyType(String name) {
+        for (WorkloadGenerator.KeyType type : WorkloadGenerator.KeyType.values()) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /* Returns the keys and the missing keys of the benchmark mode: the given number of keys generated with
+     * the default seed if the source is a type of generated keys, else the lines of the source file. Returns
+     * null if there are no keys. */
+    private static String[][] benchmarkKeys(String source, int size) {
+        WorkloadGenerator.KeyType type = keyType(source);
+        if (type != null) {
+            WorkloadGenerator generator = new WorkloadGenerator(type, GENERATOR_SEED);
+            return (size > 0) ? new String[][]{generator.keys(size), generator.missingKeys(size)} : null;
+        }
+        String[] keys = Ex3Utils.file2array(source);
+        return (keys == null || keys.length == 0) ? null : new String[][]{keys, missingKeys(keys)};
+    }
+
+    /**
+     * Runs the benchmark mode: runs every workload of SetBenchmark (add, contains of hits and of misses,
+     * delete and a mix) on fresh sets of every implementation, with the keys of the given file, and prints
+     * the throughput, the latency percentiles and the allocation of each. With forks, every set is measured
+     * in new JVMs (one after the other), so the measurements of the sets don't affect each other.
+     * @param file - a line delimited data file of the keys.
+     * @param numOfForks - the number of new JVMs per set (0 to measure all the sets in this JVM).
+     */
+    public void runBenchmarkAnalyzer(String file, int numOfForks) {
+        runBenchmarkAnalyzer(file, numOfForks, GENERATED_SIZE);
+    }
+
+    /**
+     * Runs the benchmark mode (like runBenchmarkAnalyzer(String, int)), with the keys of the given file, or
+     * with generated keys if the source is the name of a type of WorkloadGenerator (uniform, numeric or
+     * colliding).
+     * @param source - a line delimited data file of the keys, or the name of a type of generated keys.
+     * @param numOfForks - the number of new JVMs per set (0 to measure all the sets in this JVM).
+     * @param size - the number of generated keys (ignored for a file).
+     */
+    public void runBenchmarkAnalyzer(String source, int numOfForks, int size) {
+        String[][] keys = benchmarkKeys(source, size);
+        if (keys == null || numOfForks < 0) {
+            System.out.println(INVALID_MSG);
+            return;
+        }
+        for (int i = 0; i < benchSetTypes.length; i++) {
+            if (numOfForks == 0) {
+                benchmarkSet(i, keys[0], keys[1]);
+            }
+            for (int fork = 0; fork < numOfForks; fork++) {
+                ProcessBuilder builder = new ProcessBuilder(
+                        Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-cp",
+                        System.getProperty("java.class.path"), SimpleSetPerformanceAnalyzer.class.getName(),
+                        BENCH_FORK, Integer.toString(i), source, Integer.toString(size));
+                try {
+                    int exitCode = builder.inheritIO().start().waitFor();
+                    if (exitCode != 0) {
+                        System.out.println(INVALID_MSG);
+                    }
+                } catch (IOException e) {
+                    System.out.println(INVALID_MSG);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /* Adds the given number of generated keys to the given set, and then searches the given number of
+     * lookups of the generator. The keys and the lookups are generated in batches, that are not timed.
+     * Returns the time of the additions in milliseconds, the average time of a search in nanoseconds and the
+     * number of lookups that were found. */
+    private static long[] analyzeGenerated(SimpleSet set, WorkloadGenerator generator, long size,
+                                           long numOfLookups, WorkloadGenerator.LookupStream lookups) {
+        String[] batch = new String[GENERATED_BATCH];
+        long addTime = 0;
+        for (long added = 0; added < size; added += GENERATED_BATCH) {
+            int batchSize = (int) Math.min(GENERATED_BATCH, size - added);
+            for (int i = 0; i < batchSize; i++) {
+                batch[i] = generator.key(added + i);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                blackhole.consume(set.add(batch[i]));
+            }
+            addTime += System.nanoTime() - start;
+        }
+        long searchTime = 0;
+        long found = 0;
+        for (long searched = 0; searched < numOfLookups; searched += GENERATED_BATCH) {
+            int batchSize = (int) Math.min(GENERATED_BATCH, numOfLookups - searched);
+            for (int i = 0; i < batchSize; i++) {
+                batch[i] = lookups.next();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                found += set.contains(batch[i]) ? 1 : 0;
+            }
+            searchTime += System.nanoTime() - start;
+        }
+        blackhole.publish();
+        return new long[]{addTime / 1000000, searchTime / Math.max(1, numOfLookups), found};
+    }
+
+    /**
+     * Runs the generated mode: adds the given number of keys of the generator to a new set of every type
+     * (the linked list only up to 100000 keys), and then searches keys and missing keys by the given hit
+     * ratio and distribution (up to 2^22 lookups). Prints the time of the additions in milliseconds, the
+     * average time of a search in nanoseconds and the number of lookups that were found. The keys are
+     * generated in small batches, so any number of keys can be tested (as long as the sets fit in memory).
+     * @param generator - the generator of the keys.
+     * @param size - the number of keys.
+     * @param hitRatio - the probability of a lookup to be one of the keys.
+     * @param zipfExponent - the exponent of the Zipf distribution of the looked up keys (0 for uniform).
+     */
+    public void runGeneratedAnalyzer(WorkloadGenerator generator, long size, double hitRatio,
+                                     double zipfExponent) {
+        if (size <= 0) {
+            System.out.println(INVALID_MSG);
+            return;
+        }
+        long numOfLookups = Math.min(size, MAX_LOOKUPS);
+        for (int i = 0; i < NUM_OF_SETS; i++) {
+            if (i == LINKED_LIST && size > MAX_LINKED_LIST_SIZE) {
+                System.out.println(setTypes[i] + " - skipped (more than " + MAX_LINKED_LIST_SIZE + " keys)");
+                continue;
+            }
+            // every set searches the same lookups
+            long[] times = analyzeGenerated(newSet(i), generator, size, numOfLookups,
+                    generator.lookups(size, hitRatio, zipfExponent));
+            System.out.println(setTypes[i] + " - " + size + " keys: add " + times[0] + " ms, contains "
+                    + times[1] + " ns (found " + times[2] + " of " + numOfLookups + ")");
+        }
+    }
+
+    /* Returns a new, empty thread safe set of the given index in concurrentSetTypes. */
+    private static SimpleSet newConcurrentSet(int setNum) {
+        switch (setNum) {
+            case 0:
+                return new ConcurrentOpenHashSet();
+            case 1:
+                return new LockFreeClosedHashSet();
+            default:
+                return new CollectionFacadeSet(Collections.synchronizedSet(new HashSet<String>()));
+        }
+    }
+
+    /* Analyzes a read-mostly workload on a given thread safe set with the given number of threads: each
+     * thread searches all the data CONCURRENT_ROUNDS times (starting from a different place), and every
+     * WRITE_PERIOD'th search deletes and adds back the value instead. Returns the number of operations per
+     * millisecond. */
+    private static long analyzeConcurrent(SimpleSet set, String[] data, int numOfThreads) {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicLong found = new AtomicLong();
+        Thread[] threads = new Thread[numOfThreads];
+        for (int t = 0; t < numOfThreads; t++) {
+            int offset = t * (data.length / numOfThreads);
+            threads[t] = new Thread(() -> {
+                long localFound = 0;
+                try {
+                    startSignal.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int round = 0; round < CONCURRENT_ROUNDS; round++) {
+                    for (int i = 0; i < data.length; i++) {
+                        String str = data[(i + offset) % data.length];
+                        if (i % WRITE_PERIOD == 0) {
+                            set.delete(str);
+                            set.add(str);
+                        }
+                        else if (set.contains(str)) {
+                            localFound++;
+                        }
+                    }
+                }
+                // keeps the searches from being optimized away
+                found.addAndGet(localFound);
+            });
+            threads[t].start();
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+        long time = System.nanoTime() - start;
+        long operations = (long) numOfThreads * CONCURRENT_ROUNDS * data.length;
+        return operations * 1000000L / Math.max(1, time);
+    }
+
+    /* Returns a new, unstarted thread of the given task: a virtual thread if asked and the JVM has them
+     * (Thread.ofVirtual() is looked up by reflection, so the analyzer still runs on JVMs without it), else a
+     * platform thread. */
+    private static Thread newThread(Runnable task, boolean isVirtual) {
+        if (isVirtual) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Method unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted",
+                        Runnable.class);
+                return (Thread) unstarted.invoke(builder, task);
+            } catch (ReflectiveOperationException e) {
+                // no virtual threads in this JVM
+            }
+        }
+        return new Thread(task);
+    }
+
+    /* Returns true iff the JVM has virtual threads. */
+    private static boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /* Drives a mixed workload on a given thread safe set with the given number of threads, for the given
+     * duration in nanoseconds: every operation of a thread searches a random key with the given percent, else
+     * adds or deletes a random key (half each). The latency of every operation is recorded in a histogram of
+     * its thread, and the histograms of the threads are added to the given histograms (by the indexes of the
+     * operations) once they finish. Returns the number of operations per millisecond. */
+    private static long analyzeMixed(SimpleSet set, String[] keys, int numOfThreads, int readPercent,
+                                     long duration, boolean isVirtual, LatencyHistogram[] histograms) {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicLong found = new AtomicLong();
+        long[] deadline = new long[1];
+        LatencyHistogram[][] threadHistograms = new LatencyHistogram[numOfThreads][mixedOperations.length];
+        Thread[] threads = new Thread[numOfThreads];
+        for (int t = 0; t < numOfThreads; t++) {
+            LatencyHistogram[] local = threadHistograms[t];
+            for (int op = 0; op < local.length; op++) {
+                local[op] = new LatencyHistogram();
+            }
+            SplittableRandom random = new SplittableRandom(GENERATOR_SEED + t);
+            threads[t] = newThread(() -> {
+                long localFound = 0;
+                try {
+                    startSignal.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 1; (i % MIXED_CHECK_PERIOD != 0) || (System.nanoTime() < deadline[0]); i++) {
+                    String key = keys[random.nextInt(keys.length)];
+                    int roll = random.nextInt(100);
+                    int op = (roll < readPercent) ? MIXED_CONTAINS
+                            : random.nextBoolean() ? MIXED_ADD : MIXED_DELETE;
+                    long start = System.nanoTime();
+                    boolean result = (op == MIXED_CONTAINS) ? set.contains(key)
+                            : (op == MIXED_ADD) ? set.add(key) : set.delete(key);
+                    local[op].record(System.nanoTime() - start);
+                    localFound += result ? 1 : 0;
+                }
+                // keeps the operations from being optimized away
+                found.addAndGet(localFound);
+            }, isVirtual);
+            threads[t].start();
+        }
+        long start = System.nanoTime();
+        deadline[0] = start + duration;
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+        long time = System.nanoTime() - start;
+        long operations = 0;
+        for (LatencyHistogram[] local : threadHistograms) {
+            for (int op = 0; op < histograms.length; op++) {
+                histograms[op].add(local[op]);
+                operations += local[op].totalCount();
+            }
+        }
+        return operations * 1000000L / Math.max(1, time);
+    }
+
+    /**
+     * Runs the mixed mode: drives a mix of searches, additions and deletions of random generated keys on each
+     * thread safe set from 1, 2, 4... threads (up to the given number), each for the given duration. Prints
+     * the throughput of all the threads, the scaling efficiency (the throughput compared to the throughput of
+     * a single thread times the number of threads, so 1.0 means linear scaling), and a histogram of the
+     * latencies of each operation (its percentiles and highest value, in nanoseconds).
+     * @param readPercent - the percent of the operations that are searches (the rest are additions and
+     *                    deletions, half each).
+     * @param seconds - the duration of a run of every number of threads.
+     * @param maxThreads - the maximal number of threads.
+     * @param isVirtual - true to run virtual threads (if the JVM has them), false to run platform threads.
+     */
+    public void runMixedAnalyzer(int readPercent, int seconds, int maxThreads, boolean isVirtual) {
+        if (readPercent < 0 || readPercent > 100 || seconds <= 0 || maxThreads <= 0) {
+            System.out.println(INVALID_MSG);
+            return;
+        }
+        if (isVirtual && !hasVirtualThreads()) {
+            System.out.println("No virtual threads in this JVM, running platform threads.");
+            isVirtual = false;
+        }
+        String threadType = isVirtual ? " virtual threads" : " platform threads";
+        String[] keys = new WorkloadGenerator(WorkloadGenerator.KeyType.UNIFORM, GENERATOR_SEED)
+                .keys(GENERATED_SIZE);
+        long duration = seconds * 1000000000L;
+        for (int i = 0; i < concurrentSetTypes.length; i++) {
+            SimpleSet set = newConcurrentSet(i);
+            for (String str : keys) {
+                set.add(str);
+            }
+            LatencyHistogram[] histograms = new LatencyHistogram[mixedOperations.length];
+            for (int op = 0; op < histograms.length; op++) {
+                histograms[op] = new LatencyHistogram();
+            }
+            analyzeMixed(set, keys, 1, readPercent, duration, isVirtual, histograms); // warm up
+            long singleThread = 0;
+            for (int numOfThreads = 1; numOfThreads <= maxThreads; numOfThreads *= 2) {
+                for (LatencyHistogram histogram : histograms) {
+                    histogram.reset();
+                }
+                long throughput = analyzeMixed(set, keys, numOfThreads, readPercent, duration, isVirtual,
+                        histograms);
+                if (numOfThreads == 1) {
+                    singleThread = throughput;
+                }
+                System.out.println(concurrentSetTypes[i] + " - MIXED " + readPercent + "% reads with "
+                        + numOfThreads + threadType + ": " + throughput + " ops/ms, scaling "
+                        + ((double) throughput) / (Math.max(1, singleThread) * numOfThreads));
+                for (int op = 0; op < histograms.length; op++) {
+                    System.out.println("    " + mixedOperations[op] + ": " + histograms[op]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the multi-threaded mode: analyzes a read-mostly workload on each thread safe set with 1, 2, 4...
+     * threads (up to the number of available processors), and prints the throughput and how it scales
+     * compared to a single thread (1.0 means linear scaling).
+     * @param data - the data to add to the sets and search.
+     */
+    public void runConcurrentAnalyzer(String[] data) {
+        if (data == null || data.length == 0) {
+            System.out.println(INVALID_MSG);
+            return;
+        }
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < concurrentSetTypes.length; i++) {
+            SimpleSet set = newConcurrentSet(i);
+            for (String str : data) {
+                set.add(str);
+            }
+            analyzeConcurrent(set, data, 1); // warm up
+            long singleThread = 0;
+            for (int numOfThreads = 1; numOfThreads <= maxThreads; numOfThreads *= 2) {
+                System.out.println(concurrentSetTypes[i] + " - Testing CONCURRENT with " + numOfThreads
+                        + " threads (operations per ms, scaling)");
+                long throughput = analyzeConcurrent(set, data, numOfThreads);
+                if (numOfThreads == 1) {
+                    singleThread = throughput;
+                }
+                System.out.println(throughput + ", "
+                        + ((double) throughput) / (Math.max(1, singleThread) * numOfThreads));
+            }
+        }
+    }
+
+    /**
+     * Runs the numeric mode: adds the same random non negative ids to the string sets (as decimal strings)
+     * and to the primitive sets, searches each id and a missing (negative) id, and prints the time of the
+     * additions in milliseconds and the average time of a search in nanoseconds. Each set is analyzed once
+     * to warm up before it is measured.
+     * @param numOfIds - the number of ids to add.
+     */
+    public void runNumericAnalyzer(int numOfIds) {
+        if (numOfIds <= 0) {
+            System.out.println(INVALID_MSG);
+            return;
+        }
+        Random random = new Random(NUMERIC_SEED);
+        int[] ids = new int[numOfIds];
+        for (int i = 0; i < numOfIds; i++) {
+            ids[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < numericSetTypes.length; i++) {
+            analyzeNumeric(i, ids); // warm up
+            long[] times = analyzeNumeric(i, ids);
+            System.out.println(numericSetTypes[i] + " - Testing NUMERIC " + numOfIds
+                    + " ids (add ms, contains ns)");
+            System.out.println(times[0] + ", " + times[1]);
+        }
+    }
+
     private void initializeSets(){
         openHashSet = new OpenHashSet();
         closedHashSet = new ClosedHashSet();
         linkedList = new CollectionFacadeSet(new LinkedList<String>());
         treeSet = new CollectionFacadeSet(new TreeSet<String>());
         hashSet = new CollectionFacadeSet(new HashSet<String>());
-        sets = new SimpleSet[]{openHashSet, closedHashSet, linkedList, treeSet, hashSet};
+        robinHoodHashSet = new RobinHoodHashSet();
+        swissHashSet = new SwissHashSet();
+        offHeapStringSet = new OffHeapStringSet();
+        sets = new SimpleSet[]{openHashSet, closedHashSet, linkedList, treeSet, hashSet, robinHoodHashSet,
+                swissHashSet, offHeapStringSet};
+    }
+
+    /**
+     * Runs the loading mode: streams the given file into each set through StreamingLoader (so the file is
+     * never held in an array), first on a single thread and then pipelined, and prints the time it took in
+     * milliseconds.
+     * @param file - a line delimited data file.
+     */
+    public void runLoadAnalyzer(Path file) {
+        for (int i = NUM_OF_SETS - 1; i >= 0; i--) {
+            for (boolean isPipelined : new boolean[]{false, true}) {
+                initializeSets();
+                System.out.println(setTypes[i] + " - Testing LOAD " + file
+                        + (isPipelined ? " pipelined" : ""));
+                long start = System.nanoTime();
+                try {
+                    StreamingLoader.load(file, sets[i], isPipelined);
+                } catch (IOException e) {
+                    System.out.println(INVALID_MSG);
+                    return;
+                }
+                System.out.println((System.nanoTime() - start) / 1000000);
+            }
+        }
+    }
+
+    /* Reads the lines of a data file through StreamingLoader into an array (null if it can't be read). */
+    private static String[] loadArray(Path file) {
+        List<String> lines = new ArrayList<>();
+        try {
+            StreamingLoader.forEachLine(file, lines::add);
+        } catch (IOException e) {
+            return null;
+        }
+        return lines.toArray(new String[0]);
     }
 
     public void runAnalyzer(String[] data, int dataType, String str1, String str2) {
@@ -150,13 +855,76 @@ public class SimpleSetPerformanceAnalyzer {
 
     public static void main(String[] args) {
         SimpleSetPerformanceAnalyzer analyzer = new SimpleSetPerformanceAnalyzer();
-       /* analyzer.runAnalyzer(data1Array,1, STRING1, STRING3);
-        analyzer.initializeSets();
-        */
-        analyzer.runAnalyzer(data2Array,2, STRING2, STRING3);
+        if (args.length > 0 && args[0].equals(LOAD)) {
+            analyzer.runLoadAnalyzer(Paths.get(args.length > 1 ? args[1] : DATA2_FILE));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(BENCH)) {
+            try {
+                analyzer.runBenchmarkAnalyzer(args.length > 1 ? args[1] : DATA2_FILE,
+                        args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_FORKS,
+                        args.length > 3 ? Integer.parseInt(args[3]) : GENERATED_SIZE);
+            } catch (NumberFormatException e) {
+                System.out.println(INVALID_MSG);
+            }
+            return;
+        }
+        if (args.length > 3 && args[0].equals(BENCH_FORK)) {
+            String[][] keys = benchmarkKeys(args[2], Integer.parseInt(args[3]));
+            benchmarkSet(Integer.parseInt(args[1]), keys[0], keys[1]);
+            return;
+        }
+        if (args.length > 1 && args[0].equals(GENERATE)) {
+            try {
+                WorkloadGenerator.KeyType type = keyType(args[1]);
+                if (type == null) {
+                    System.out.println(INVALID_MSG);
+                    return;
+                }
+                analyzer.runGeneratedAnalyzer(new WorkloadGenerator(type,
+                                args.length > 5 ? Long.parseLong(args[5]) : GENERATOR_SEED),
+                        args.length > 2 ? Long.parseLong(args[2]) : GENERATED_SIZE,
+                        args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_HIT_RATIO,
+                        args.length > 4 ? Double.parseDouble(args[4]) : 0);
+            } catch (IllegalArgumentException e) {
+                System.out.println(INVALID_MSG);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals(MIXED)) {
+            try {
+                int maxThreads = Runtime.getRuntime().availableProcessors();
+                analyzer.runMixedAnalyzer(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_READ_PERCENT,
+                        args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MIXED_SECONDS,
+                        args.length > 3 ? Integer.parseInt(args[3]) : maxThreads,
+                        args.length > 4 && args[4].equalsIgnoreCase(VIRTUAL));
+            } catch (NumberFormatException e) {
+                System.out.println(INVALID_MSG);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals(NUMERIC)) {
+            try {
+                analyzer.runNumericAnalyzer(args.length > 1 ? Integer.parseInt(args[1]) : NUMERIC_SIZE);
+            } catch (NumberFormatException e) {
+                System.out.println(INVALID_MSG);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals(FIRST_DATA)) {
+            String[] data1Array = loadArray(Paths.get(DATA1_FILE));
+            if (data1Array == null) {
+                System.out.println(INVALID_MSG);
+                return;
+            }
+            analyzer.runAnalyzer(data1Array, DATA1, STRING1, STRING3);
+            return;
+        }
+        data2Array = Ex3Utils.file2array(DATA2_FILE);
+        if (args.length > 0 && args[0].equals(CONCURRENT)) {
+            analyzer.runConcurrentAnalyzer(data2Array);
+            return;
+        }
+        analyzer.runAnalyzer(data2Array, DATA2, STRING2, STRING3);
     }
-}
-
-
-
-
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+/**
+ * A spliterator over the slots (buckets or cells) of a hash table, for sequential and parallel streams of
+ * its elements.
+ * A spliterator covers a range of slots, and splits by halving the range, so the splits of a table that is
+ * filled evenly have about the same number of elements. The elements of a range are traversed by a cursor of
+ * the table (SetCursor), so the traversal doesn't allocate per element.
+ * @author eden horka
+ */
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+class SlotSpliterator implements Spliterator<String> {
+
+    /* The minimal number of slots of a range that is split (smaller ranges are traversed by one thread). */
+    private static final int MIN_SPLIT_SLOTS = 1 << 10 ;
+
+    /**
+     * Creates the cursors of the ranges of slots of a table.
+     */
+    interface CursorFactory {
+
+        /**
+         * @param from - the first slot of the range.
+         * @param to - the slot after the last slot of the range.
+         * @return a new cursor over the elements of the slots of the range.
+         */
+        SetCursor cursor(int from, int to);
+    }
+
+    /* Creates the cursor of the range. */
+    private final CursorFactory factory ;
+
+    /* The first slot of the range (moves forward when the range is split). */
+    private int from ;
+
+    /* The slot after the last slot of the range. */
+    private final int to ;
+
+    /* The estimated number of elements in the range. */
+    private long estimatedSize ;
+
+    /* The cursor of the range, created when its traversal starts (and then the range is not split). */
+    private SetCursor cursor ;
+
+    /**
+     * Builds a spliterator over a range of slots of a table.
+     * @param factory - creates the cursor of the range.
+     * @param from - the first slot of the range.
+     * @param to - the slot after the last slot of the range.
+     * @param estimatedSize - the estimated number of elements in the range.
+     */
+    SlotSpliterator(CursorFactory factory, int from, int to, long estimatedSize) {
+        this.factory = factory ;
+        this.from = from ;
+        this.to = to ;
+        this.estimatedSize = estimatedSize ;
+    }
+
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if ( cursor().advance() ) {
+            action.accept(cursor.value());
+            return true ;
+        }
+        return false ;
+    }
+
+    public void forEachRemaining(Consumer<? super String> action) {
+        SetCursor rangeCursor = cursor() ;
+        while ( rangeCursor.advance() ) {
+            action.accept(rangeCursor.value());
+        }
+    }
+
+    public Spliterator<String> trySplit() {
+        if (( cursor != null ) || ( to - from < MIN_SPLIT_SLOTS )) {
+            return null ;
+        }
+        int middle = ( from + to ) >>> 1 ;
+        SlotSpliterator prefix = new SlotSpliterator(factory, from, middle, estimatedSize >>> 1) ;
+        from = middle ;
+        estimatedSize -= prefix.estimatedSize ;
+        return prefix ;
+    }
+
+    public long estimateSize() {
+        return estimatedSize ;
+    }
+
+    public int characteristics() {
+        return DISTINCT | NONNULL ;
+    }
+
+    /* returns the cursor of the range, and creates it if the traversal didn't start yet. */
+    private SetCursor cursor() {
+        if ( cursor == null ) {
+            cursor = factory.cursor(from, to) ;
+        }
+        return cursor ;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+/**
+ * Records the probe lengths of the searches and the rehashes of a hash set, for its HashSetStatistics.
+ * A hash set has a recorder only when HashSetStatistics.ENABLED, and calls it only under that flag. Like the
+ * sets themselves, a recorder is not thread safe.
+ * @author eden horka
+ */
+
+class StatisticsRecorder {
+
+    /* The histogram of the probe lengths of the searches that found their value. */
+    private final long[] hitProbes = new long[HashSetStatistics.MAX_LENGTH + 1] ;
+
+    /* The histogram of the probe lengths of the searches that didn't find their value. */
+    private final long[] missProbes = new long[HashSetStatistics.MAX_LENGTH + 1] ;
+
+    /* The number of rehashes. */
+    private long rehashCount ;
+
+    /* The cumulative time of the rehashes, in nanoseconds. */
+    private long rehashTime ;
+
+    /**
+     * Records a search.
+     * @param probes - the number of probes of a search that found its value (at least 1), or minus the number
+     *               of probes minus 1 of a search that didn't (at most -1).
+     */
+    void recordSearch(int probes) {
+        if ( probes > 0 ) {
+            hitProbes[Math.min(probes, HashSetStatistics.MAX_LENGTH)]++ ;
+        }
+        else {
+            missProbes[Math.min(-probes - 1, HashSetStatistics.MAX_LENGTH)]++ ;
+        }
+    }
+
+    /**
+     * Records a rehash.
+     * @param time - the time of the rehash, in nanoseconds.
+     */
+    void recordRehash(long time) {
+        rehashCount++ ;
+        rehashTime += time ;
+    }
+
+    /**
+     * Takes a snapshot of the recorded statistics and of the given statistics of the table.
+     * @param chainLengths - the histogram of the lengths of the chains of the table.
+     * @param numOfTombstones - the number of deleted cells of the table.
+     * @param size - the number of elements.
+     * @param capacity - the capacity of the table.
+     * @return the snapshot.
+     */
+    HashSetStatistics snapshot(long[] chainLengths, int numOfTombstones, int size, int capacity) {
+        return new HashSetStatistics(hitProbes.clone(), missProbes.clone(), chainLengths, numOfTombstones,
+                rehashCount, rehashTime, size, capacity) ;
+    }
+}
\ No newline at end of file
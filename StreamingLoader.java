@@ -0,0 +1,231 @@
+/**
+ * Loads line delimited text files into sets as a stream, so the whole file is never on the heap (unlike
+ * Ex3Utils.file2array).
+ * The file is read through a FileChannel into a reusable buffer, decoded in UTF-8 into a reusable buffer of
+ * chars, and split into lines ('\n' or "\r\n"), each added to the set as soon as it is decoded.
+ * In the pipelined mode, reading and decoding run on a separate thread, that hands batches of lines to the
+ * inserting thread through a bounded queue, so the insertions overlap with the reading of the file, and the
+ * memory in use stays bounded by the size of the queue.
+ * @author eden horka
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+public class StreamingLoader {
+
+    /* The size of the buffers of bytes and chars (in bytes and chars). */
+    private static final int BUFFER_SIZE = 1 << 16 ;
+
+    /* The number of lines in a batch that is handed between the threads of the pipelined mode. */
+    private static final int BATCH_SIZE = 1024 ;
+
+    /* The number of batches that the queue of the pipelined mode holds. */
+    private static final int QUEUE_CAPACITY = 16 ;
+
+    /* The batch that ends the queue of the pipelined mode. */
+    private static final String[] END_OF_INPUT = new String[0] ;
+
+    /* A utility class is never instantiated. */
+    private StreamingLoader() {
+    }
+
+    /**
+     * Adds every line of the given file to the given set, on the calling thread.
+     * @param file - a line delimited text file (in UTF-8).
+     * @param set - the set to add the lines to.
+     * @return the number of lines that were added to the set (that were not in it already).
+     * @throws IOException if the file can't be read.
+     */
+    public static int load(Path file, SimpleSet set) throws IOException {
+        return load(file, set, false) ;
+    }
+
+    /**
+     * Adds every line of the given file to the given set.
+     * @param file - a line delimited text file (in UTF-8).
+     * @param set - the set to add the lines to.
+     * @param isPipelined - true to read and decode the file on another thread while the calling thread adds
+     *                    the lines, false to do both on the calling thread.
+     * @return the number of lines that were added to the set (that were not in it already).
+     * @throws IOException if the file can't be read.
+     */
+    public static int load(Path file, SimpleSet set, boolean isPipelined) throws IOException {
+        if ( isPipelined ) {
+            return loadPipelined(file, set) ;
+        }
+        int[] numOfAdded = new int[1] ;
+        forEachLine(file, line -> {
+            if ( set.add(line) ) {
+                numOfAdded[0]++ ;
+            }
+        });
+        return numOfAdded[0] ;
+    }
+
+    /**
+     * Performs the given action on every line of the given file, in order, without the line terminators
+     * ('\n' or "\r\n"). Malformed UTF-8 bytes are replaced by U+FFFD.
+     * @param file - a line delimited text file (in UTF-8).
+     * @param action - the action to perform on each line.
+     * @throws IOException if the file can't be read.
+     */
+    public static void forEachLine(Path file, Consumer<String> action) throws IOException {
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE) ;
+            ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE) ;
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE) ;
+            StringBuilder partialLine = new StringBuilder() ;
+            boolean isEndOfInput = false ;
+            while ( ! isEndOfInput ) {
+                isEndOfInput = ( channel.read(bytes) == -1 ) ;
+                bytes.flip();
+                CoderResult result ;
+                do {
+                    result = decoder.decode(bytes, chars, isEndOfInput) ;
+                    splitLines(chars, partialLine, action);
+                } while ( result.isOverflow() ) ;
+                bytes.compact();
+            }
+            while ( decoder.flush(chars).isOverflow() ) {
+                splitLines(chars, partialLine, action);
+            }
+            splitLines(chars, partialLine, action);
+            if ( partialLine.length() > 0 ) {
+                action.accept(withoutCarriageReturn(partialLine));
+            }
+        }
+    }
+
+    /* performs the action on every complete line of the decoded chars, keeps the chars after the last line
+     * terminator in the partial line, and clears the chars. */
+    private static void splitLines(CharBuffer chars, StringBuilder partialLine, Consumer<String> action) {
+        char[] array = chars.array() ;
+        int start = 0 ;
+        int end = chars.position() ;
+        for (int i = 0; i < end; i++) {
+            if ( array[i] == '\n' ) {
+                if ( partialLine.length() == 0 ) {
+                    int lineEnd = (( i > start ) && ( array[i - 1] == '\r' )) ? i - 1 : i ;
+                    action.accept(new String(array, start, lineEnd - start));
+                }
+                else {
+                    partialLine.append(array, start, i - start);
+                    action.accept(withoutCarriageReturn(partialLine));
+                    partialLine.setLength(0);
+                }
+                start = i + 1 ;
+            }
+        }
+        partialLine.append(array, start, end - start);
+        chars.clear();
+    }
+
+    /* returns the line, without a '\r' at its end. */
+    private static String withoutCarriageReturn(StringBuilder line) {
+        int length = line.length() ;
+        if (( length > 0 ) && ( line.charAt(length - 1) == '\r' )) {
+            length-- ;
+        }
+        return line.substring(0, length) ;
+    }
+
+    /* adds the lines of the file to the set on the calling thread, while another thread reads and decodes
+     * them into batches. The reading thread always ends the queue (even if it fails), and hands its failure
+     * to the calling thread, that throws it once it has added the lines that were read before it. */
+    private static int loadPipelined(Path file, SimpleSet set) throws IOException {
+        BlockingQueue<String[]> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY) ;
+        Throwable[] readError = new Throwable[1] ;
+        Thread reader = new Thread(() -> {
+            String[] batch = new String[BATCH_SIZE] ;
+            int[] batchSize = new int[1] ;
+            try {
+                forEachLine(file, line -> {
+                    batch[batchSize[0]++] = line ;
+                    if ( batchSize[0] == BATCH_SIZE ) {
+                        putBatch(batches, batch.clone());
+                        batchSize[0] = 0 ;
+                    }
+                });
+                putBatch(batches, Arrays.copyOf(batch, batchSize[0]));
+            }
+            catch ( Throwable e ) {
+                // the queue ends the same way, and the calling thread throws the failure
+                readError[0] = e ;
+            }
+            finally {
+                try {
+                    batches.put(END_OF_INPUT);
+                }
+                catch ( InterruptedException e ) {
+                    // the loading was stopped, no one takes the batches any more
+                }
+            }
+        }, "StreamingLoader reader") ;
+        reader.setDaemon(true);
+        reader.start();
+        int numOfAdded = 0 ;
+        try {
+            String[] batch = batches.take() ;
+            while ( batch != END_OF_INPUT ) {
+                for ( String line: batch ) {
+                    if ( set.add(line) ) {
+                        numOfAdded++ ;
+                    }
+                }
+                batch = batches.take() ;
+            }
+            reader.join();
+        }
+        catch ( InterruptedException e ) {
+            reader.interrupt();
+            Thread.currentThread().interrupt();
+            throw new IOException("The loading of " + file + " was interrupted.", e);
+        }
+        finally {
+            if ( reader.isAlive() ) {
+                reader.interrupt();
+            }
+        }
+        Throwable error = readError[0] ;
+        if ( error instanceof IOException ) {
+            throw (IOException) error ;
+        }
+        if ( error instanceof RuntimeException ) {
+            throw (RuntimeException) error ;
+        }
+        if ( error instanceof Error ) {
+            throw (Error) error ;
+        }
+        if ( error != null ) {
+            throw new IOException("The reading of " + file + " failed.", error);
+        }
+        return numOfAdded ;
+    }
+
+    /* puts a batch in the queue, waiting for room if it is full. Throws IllegalStateException if the thread
+     * is interrupted while waiting (and keeps it interrupted, so it doesn't wait to end the queue either). */
+    private static void putBatch(BlockingQueue<String[]> batches, String[] batch) {
+        try {
+            batches.put(batch);
+        }
+        catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
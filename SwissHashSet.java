@@ -0,0 +1,307 @@
+/**
+ * This class represents a hash set of a closed hashing model laid out like a "Swiss table".
+ * The cells are divided into groups of 8. Each cell has a control byte: empty, deleted, or 7 bits of the hash
+ * code of its value. The 8 control bytes of a group are kept in a single long, so a whole group is matched at
+ * once with bit tricks on that long (SWAR - SIMD within a register), and equals() is called only on cells
+ * whose 7 hash bits match. The groups are probed quadratically, and a search stops at the first group that
+ * has an empty cell.
+ * @author eden horka
+ */
+
+public class SwissHashSet extends SimpleHashSet {
+
+    /* The number of cells in a group (the number of bytes in a long). */
+    private static final int GROUP_SIZE = 8 ;
+
+    /* log2 of GROUP_SIZE. */
+    private static final int GROUP_SHIFT = 3 ;
+
+    /* The number of hash bits kept in the control byte of a cell. */
+    private static final int H2_BITS = 7 ;
+
+    /* A long with 1 in the lowest bit of each byte. */
+    private static final long LSBS = 0x0101010101010101L ;
+
+    /* A long with 1 in the highest bit of each byte. */
+    private static final long MSBS = 0x8080808080808080L ;
+
+    /*== The special control bytes (a cell with a value has a control byte between 0 and 127): ==*/
+    /* A cell that was never used since the last rehash. */
+    private static final long EMPTY = 0x80 ;
+
+    /* A cell whose value was deleted. */
+    private static final long DELETED = 0xFE ;
+
+    /* A control word of a group of empty cells. */
+    private static final long EMPTY_GROUP = EMPTY * LSBS ;
+
+    /* The control words of the groups. */
+    private long[] controls ;
+
+    /* The values of the cells. */
+    private java.lang.String[] values ;
+
+    /* The cached hash codes of the values of the cells. */
+    private int[] hashes ;
+
+    /* The current number of deleted cells in the table. */
+    private int numOfDeleted ;
+
+
+    /* ===== Constructors: ==== */
+
+    /**
+     * A default constructor of a swiss hash set.
+     * Builds a new, empty table with default initial capacity, upper and lower load factor.
+     */
+    public SwissHashSet() {
+        reset();
+    }
+
+    /**
+     * A constructor of a swiss hash set.
+     * Builds a new, empty table with the specified load factors, and the default initial capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     */
+    public SwissHashSet(float upperLoadFactor, float lowerLoadFactor) {
+        super(upperLoadFactor, lowerLoadFactor);
+        reset();
+    }
+
+    /**
+     * A constructor of a swiss hash set.
+     * Builds a new, empty table with the specified load factors and hash function, and the default initial
+     * capacity.
+     *
+     * @param upperLoadFactor - The upper load factor of the hash table.
+     * @param lowerLoadFactor - The lower load factor of the hash table.
+     * @param hashFunction - The hash function of the hash table.
+     */
+    public SwissHashSet(float upperLoadFactor, float lowerLoadFactor, HashFunction hashFunction) {
+        super(upperLoadFactor, lowerLoadFactor, hashFunction);
+        reset();
+    }
+
+    /**
+     * A constructor of a swiss hash set.
+     * Builds the hash set with the given elements (duplicate values should be ignored).
+     * The table is allocated once, with a capacity that fits all the elements, and filled in a single pass.
+     * The new table has the default load factors.
+     *
+     * @param data - Values to add to the set.
+     */
+    public SwissHashSet(java.lang.String[] data) {
+        setInitialCapacity(data.length);
+        reset();
+        addAll(data);
+    }
+
+
+    /* ==== Methods: ==== */
+
+    /**
+     * Look for a specified value in the set.
+     *
+     * @param searchVal - Value to search for
+     * @return True - if searchVal is found in the set
+     */
+    public boolean contains(java.lang.String searchVal) {
+        return ( searchVal != null ) && ( findValue(searchVal, hash(searchVal)) != -1 ) ;
+    }
+
+    /**
+     * Clamps hashing indices to the index of a group within the current table capacity.
+     * @param hashIndex -  the index before clamping.
+     * @return an index of a group, properly clamped.
+     */
+    protected int clamp(int hashIndex) {
+        return hashIndex & ( controls.length - 1 ) ;
+    }
+
+    /* looks for the value group by group, and if it wasn't found, adds it to the first empty or deleted cell
+     * on the way. */
+    protected boolean insertIfAbsent(java.lang.String value, int hash) {
+        int mixed = spread(hash);
+        long h2 = mixed & 0x7F;
+        int group = clamp(mixed >>> H2_BITS);
+        int freeCell = -1;
+        for (int i = 0; i < controls.length; i++) {
+            long control = controls[group];
+            for (long match = matchByte(control, h2); match != 0; match &= match - 1) {
+                int cell = cellIndex(group, match);
+                if (( hashes[cell] == hash ) && value.equals(values[cell])) {
+                    return false;
+                }
+            }
+            long free = control & MSBS;
+            if (( freeCell == -1 ) && ( free != 0 )) {
+                freeCell = cellIndex(group, free);
+            }
+            if ( matchEmpty(control) != 0 ) {
+                break;
+            }
+            group = clamp(group + i + 1);
+        }
+        if ( freeCell == -1 ) {
+            return false;
+        }
+        if ( getControl(freeCell) == DELETED ) {
+            numOfDeleted--;
+        }
+        values[freeCell] = value;
+        hashes[freeCell] = hash;
+        setControl(freeCell, h2);
+        return true;
+    }
+
+    /* looks for the value, and if it was found, marks its cell as empty when no search could have passed its
+     * group, or as deleted otherwise. */
+    protected boolean removeIfPresent(java.lang.String value, int hash) {
+        int cell = findValue(value, hash);
+        if ( cell == -1 ) {
+            return false;
+        }
+        values[cell] = null;
+        // a group with an empty cell was never full, so no value was ever probed past it
+        if ( matchEmpty(controls[cell >>> GROUP_SHIFT]) != 0 ) {
+            setControl(cell, EMPTY);
+        }
+        else {
+            setControl(cell, DELETED);
+            numOfDeleted++;
+        }
+        return true;
+    }
+
+    /* returns -1 if the value wasn't found, else returns the index of its cell. */
+    private int findValue(java.lang.String searchVal, int hash) {
+        int mixed = spread(hash);
+        long h2 = mixed & 0x7F;
+        int group = clamp(mixed >>> H2_BITS);
+        for (int i = 0; i < controls.length; i++) {
+            long control = controls[group];
+            for (long match = matchByte(control, h2); match != 0; match &= match - 1) {
+                int cell = cellIndex(group, match);
+                if (( hashes[cell] == hash ) && searchVal.equals(values[cell])) {
+                    return cell;
+                }
+            }
+            if ( matchEmpty(control) != 0 ) {
+                return -1;
+            }
+            group = clamp(group + i + 1);
+        }
+        return -1;
+    }
+
+    /* returns a mask with the highest bit set in each byte of the control word that equals the given byte.
+     * (may rarely have a false positive right above a true match, which equals() filters out.) */
+    private static long matchByte(long control, long b) {
+        long x = control ^ ( b * LSBS );
+        return ( x - LSBS ) & ~x & MSBS;
+    }
+
+    /* returns a mask with the highest bit set in each empty byte of the control word (an empty byte has its
+     * highest bit set and its second bit cleared, unlike a deleted byte). */
+    private static long matchEmpty(long control) {
+        return control & ~( control << 6 ) & MSBS;
+    }
+
+    /* returns the index of the cell of the lowest byte that is set in the given mask. */
+    private static int cellIndex(int group, long mask) {
+        return ( group << GROUP_SHIFT ) + ( Long.numberOfTrailingZeros(mask) >>> 3 );
+    }
+
+    /* returns the control byte of the given cell. */
+    private long getControl(int cell) {
+        return ( controls[cell >>> GROUP_SHIFT] >>> (( cell & ( GROUP_SIZE - 1 )) << 3 )) & 0xFF;
+    }
+
+    /* sets the control byte of the given cell. */
+    private void setControl(int cell, long b) {
+        int shift = ( cell & ( GROUP_SIZE - 1 )) << 3;
+        int group = cell >>> GROUP_SHIFT;
+        controls[group] = ( controls[group] & ~( 0xFFL << shift )) | ( b << shift );
+    }
+
+    /* places a value that is not in the table in the first empty cell of its probing sequence. */
+    private void place(java.lang.String value, int hash) {
+        int mixed = spread(hash);
+        int group = clamp(mixed >>> H2_BITS);
+        for (int i = 0; i < controls.length; i++) {
+            long empty = matchEmpty(controls[group]);
+            if ( empty != 0 ) {
+                int cell = cellIndex(group, empty);
+                values[cell] = value;
+                hashes[cell] = hash;
+                setControl(cell, mixed & 0x7F);
+                return;
+            }
+            group = clamp(group + i + 1);
+        }
+    }
+
+    /* Rehashes all the elements into new arrays of the current capacity (the deleted cells are dropped). */
+    private void reHash() {
+        java.lang.String[] oldValues = values;
+        int[] oldHashes = hashes;
+        reset();
+        for (int i = 0; i < oldValues.length; i++) {
+            if ( oldValues[i] != null ) {
+                place(oldValues[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /* allocates new empty arrays of the current capacity (at least one group). */
+    private void reset() {
+        if ( capacity < GROUP_SIZE ) {
+            capacity = GROUP_SIZE;
+        }
+        controls = new long[capacity >>> GROUP_SHIFT];
+        java.util.Arrays.fill(controls, EMPTY_GROUP);
+        values = new java.lang.String[capacity];
+        hashes = new int[capacity];
+        numOfDeleted = 0;
+    }
+
+    /* Changes the capacity of the hash set and rehashes all the elements. */
+    protected void resize(int newCapacity) {
+        capacity = newCapacity;
+        reHash();
+    }
+
+    /* Check if the current load factor exceeds the upper or the lower border
+     * and if it does, then rehashes the hash set. */
+    protected void reHashAfterDeletion() {
+        if ( shouldShrink() ) {
+            minimizeSet();
+        }
+    }
+
+    /* The deleted cells are counted as used cells, so that there are always empty cells to stop the searches.
+     * If the table is too full only because of them, it is rehashed with the same capacity. */
+    protected void reHashAfterAddition() {
+        loadFactor = ((float) numOfElements) / capacity;
+        if ( loadFactor >= upLoadFactor ) {
+            enlargeSet();
+        }
+        else if ( ((float) (numOfElements + numOfDeleted)) / capacity >= upLoadFactor ) {
+            reHash();
+        }
+    }
+
+    /* Minimize the capacity (size) of the hash set (to at least one group). */
+    private void minimizeSet() {
+        if ( capacity >= 2 * GROUP_SIZE ) {
+            resize(capacity / 2);
+        }
+    }
+
+    /* Enlarge the capacity (size) of the hash set. */
+    private void enlargeSet() {
+        resize(2 * capacity);
+    }
+}
\ No newline at end of file
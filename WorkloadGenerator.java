@@ -0,0 +1,300 @@
+/**
+ * Generates deterministic, seeded keys and lookups for measuring the sets, without data files.
+ * The i'th key of a generator is a function of its seed and of i only, so any number of keys can be streamed
+ * one by one (or taken as an array), and two generators with the same seed give the same keys. The keys of a
+ * generator are distinct, and a generator also gives missing keys, that are never one of its keys.
+ * The types of keys are:
+ * uniform - strings of random letters, digits, '-' and '.', of a random length in a given range;
+ * numeric - the decimal strings of scrambled non negative numbers (like data2.txt), and their negatives as
+ * the missing keys;
+ * colliding - families of 2^16 strings that share a hashCode() (like data1.txt): a scrambled prefix of the
+ * family, followed by 16 blocks of "Aa" or "BB" (which have the same hashCode()). A missing key starts its
+ * blocks with "C#" (again the same hashCode()), so it collides with its family too.
+ * A lookup stream picks keys with a given probability (else missing keys), uniformly or by a Zipf
+ * distribution of a given exponent over the first keys (the key of rank r is the r'th key, so the hottest
+ * keys are the first ones added).
+ * @author eden horka
+ */
+
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+public class WorkloadGenerator {
+
+    /**
+     * The types of generated keys.
+     */
+    public enum KeyType {
+        /** Strings of random characters, of a random length in a range. */
+        UNIFORM,
+        /** Decimal strings of non negative numbers. */
+        NUMERIC,
+        /** Families of strings that share a hashCode(). */
+        COLLIDING
+    }
+
+    /* The characters of the uniform keys (64 characters, 6 bits each). */
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-.".toCharArray() ;
+
+    /* The number of characters of the code that makes a uniform key distinct (6 bits each). */
+    private static final int CODE_LENGTH = 7 ;
+
+    /* The number of bits of the index of a key that are scrambled (keys are distinct up to 2^INDEX_BITS). */
+    private static final int INDEX_BITS = CODE_LENGTH * 6 ;
+
+    /* The mask of the scrambled bits. */
+    private static final long INDEX_MASK = ( 1L << INDEX_BITS ) - 1 ;
+
+    /* The character of a uniform missing key, that no key has. */
+    private static final char MISSING_CHAR = '!' ;
+
+    /* The number of blocks of a colliding key (so a family has 2^FAMILY_BITS keys). */
+    private static final int FAMILY_BITS = 16 ;
+
+    /* The length of the prefix of a family of colliding keys. */
+    private static final int FAMILY_PREFIX_LENGTH = 4 ;
+
+    /*== Blocks of two characters with the same hashCode(): ==*/
+    private static final String BLOCK0 = "Aa" ;
+
+    private static final String BLOCK1 = "BB" ;
+
+    private static final String MISSING_BLOCK = "C#" ;
+
+    /* The type of the keys. */
+    private final KeyType type ;
+
+    /* The seed of the generator. */
+    private final long seed ;
+
+    /* The minimal length of a uniform key. */
+    private final int minLength ;
+
+    /* The maximal length of a uniform key. */
+    private final int maxLength ;
+
+    /**
+     * Builds a generator of keys of the given type. The uniform keys are 8 to 16 characters long.
+     * @param type - the type of the keys.
+     * @param seed - the seed of the generator.
+     */
+    public WorkloadGenerator(KeyType type, long seed) {
+        this(type, seed, CODE_LENGTH + 1, 2 * ( CODE_LENGTH + 1 )) ;
+    }
+
+    /**
+     * Builds a generator of keys of the given type.
+     * @param type - the type of the keys.
+     * @param seed - the seed of the generator.
+     * @param minLength - the minimal length of a uniform key (at least 8).
+     * @param maxLength - the maximal length of a uniform key (at least minLength).
+     */
+    public WorkloadGenerator(KeyType type, long seed, int minLength, int maxLength) {
+        if (( minLength <= CODE_LENGTH ) || ( maxLength < minLength )) {
+            throw new IllegalArgumentException("The length of a key must be at least " + ( CODE_LENGTH + 1 )
+                    + ", and the maximal length at least the minimal one.") ;
+        }
+        this.type = type ;
+        this.seed = seed ;
+        this.minLength = minLength ;
+        this.maxLength = maxLength ;
+    }
+
+    /**
+     * @param index - the index of the key (non negative, and less than 2^40).
+     * @return the key of the given index (distinct from the keys of the other indices).
+     */
+    public String key(long index) {
+        switch ( type ) {
+            case NUMERIC:
+                return Long.toString(scramble(index)) ;
+            case COLLIDING:
+                return collidingKey(index, false) ;
+            default:
+                return uniformKey(index, false) ;
+        }
+    }
+
+    /**
+     * @param index - the index of the missing key (non negative, and less than 2^40).
+     * @return a missing key (that is never one of the keys of this generator), similar to the key of the
+     * given index.
+     */
+    public String missingKey(long index) {
+        switch ( type ) {
+            case NUMERIC:
+                return Long.toString(-scramble(index) - 1) ;
+            case COLLIDING:
+                return collidingKey(index, true) ;
+            default:
+                return uniformKey(index, true) ;
+        }
+    }
+
+    /**
+     * @param count - the number of keys.
+     * @return an array of the keys of the indices 0 to count - 1.
+     */
+    public String[] keys(int count) {
+        String[] keys = new String[count] ;
+        for (int i = 0; i < count; i++) {
+            keys[i] = key(i) ;
+        }
+        return keys ;
+    }
+
+    /**
+     * @param count - the number of missing keys.
+     * @return an array of the missing keys of the indices 0 to count - 1.
+     */
+    public String[] missingKeys(int count) {
+        String[] keys = new String[count] ;
+        for (int i = 0; i < count; i++) {
+            keys[i] = missingKey(i) ;
+        }
+        return keys ;
+    }
+
+    /**
+     * Performs the given action on the keys of the indices 0 to count - 1, one by one (without an array).
+     * @param count - the number of keys.
+     * @param action - the action to perform on each key.
+     */
+    public void forEachKey(long count, Consumer<String> action) {
+        for (long i = 0; i < count; i++) {
+            action.accept(key(i)) ;
+        }
+    }
+
+    /**
+     * @param numOfKeys - the number of keys that are in the searched set (the keys of the indices 0 to
+     *                  numOfKeys - 1).
+     * @param hitRatio - the probability of a lookup to be one of the keys (else it is a missing key).
+     * @param zipfExponent - the exponent of the Zipf distribution of the ranks of the looked up keys (0 for
+     *                     a uniform distribution).
+     * @return a new, seeded stream of lookups.
+     */
+    public LookupStream lookups(long numOfKeys, double hitRatio, double zipfExponent) {
+        return new LookupStream(numOfKeys, hitRatio, zipfExponent) ;
+    }
+
+    /* returns the uniform key (or missing key) of the given index: the code of the index, followed by random
+     * characters up to a random length (a missing key ends with MISSING_CHAR instead). */
+    private String uniformKey(long index, boolean isMissing) {
+        long random = mix(seed ^ mix(index)) ;
+        int length = minLength + (int) Long.remainderUnsigned(random, maxLength - minLength + 1) ;
+        char[] chars = new char[length] ;
+        long code = scramble(index) ;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            chars[i] = ALPHABET[(int) ( code & 0x3F )] ;
+            code >>>= 6 ;
+        }
+        for (int i = CODE_LENGTH; i < length; i++) {
+            if ( i % 10 == CODE_LENGTH % 10 ) {
+                random = mix(random) ;
+            }
+            chars[i] = ALPHABET[(int) ( random & 0x3F )] ;
+            random >>>= 6 ;
+        }
+        if ( isMissing ) {
+            chars[length - 1] = MISSING_CHAR ;
+        }
+        return new String(chars) ;
+    }
+
+    /* returns the colliding key (or missing key) of the given index: the prefix of its family, followed by a
+     * block for every bit of its index in the family (a missing key starts its blocks with MISSING_BLOCK). */
+    private String collidingKey(long index, boolean isMissing) {
+        // a bijection of the lowest 24 bits of the family number, so the prefixes of families differ
+        long family = ( index >>> FAMILY_BITS ) * 0x9E3779B97F4A7C15L + mix(seed) ;
+        StringBuilder key = new StringBuilder(FAMILY_PREFIX_LENGTH + 2 * FAMILY_BITS) ;
+        for (int i = 0; i < FAMILY_PREFIX_LENGTH; i++) {
+            key.append(ALPHABET[(int) ( family & 0x3F )]) ;
+            family >>>= 6 ;
+        }
+        for (int bit = 0; bit < FAMILY_BITS; bit++) {
+            if ( isMissing && ( bit == 0 ) ) {
+                key.append(MISSING_BLOCK) ;
+            }
+            else {
+                key.append((( index >>> bit ) & 1 ) == 0 ? BLOCK0 : BLOCK1) ;
+            }
+        }
+        return key.toString() ;
+    }
+
+    /* returns the scrambled index: a bijection of the lowest INDEX_BITS bits (distinct indices below
+     * 2^INDEX_BITS give distinct results), that depends on the seed. */
+    private long scramble(long index) {
+        long x = ( index ^ seed ) & INDEX_MASK ;
+        x = ( x * 0x9E3779B97F4A7C15L ) & INDEX_MASK ;
+        x ^= x >>> ( INDEX_BITS / 2 ) ;
+        x = ( x * 0xC2B2AE3D27D4EB4FL ) & INDEX_MASK ;
+        return x ^ ( x >>> ( INDEX_BITS / 3 )) ;
+    }
+
+    /* mixes the bits of a number (the finalizer of SplitMix64). */
+    private static long mix(long x) {
+        x = ( x ^ ( x >>> 30 )) * 0xBF58476D1CE4E5B9L ;
+        x = ( x ^ ( x >>> 27 )) * 0x94D049BB133111EBL ;
+        return x ^ ( x >>> 31 ) ;
+    }
+
+    /**
+     * A seeded stream of lookups of keys and missing keys of the generator.
+     */
+    public class LookupStream {
+
+        /* The random numbers of the stream. */
+        private final SplittableRandom random = new SplittableRandom(seed) ;
+
+        /* The number of keys in the searched set. */
+        private final long numOfKeys ;
+
+        /* The probability of a lookup to be a key. */
+        private final double hitRatio ;
+
+        /* The exponent of the Zipf distribution (0 for uniform). */
+        private final double zipfExponent ;
+
+        /* numOfKeys to the power of 1 - zipfExponent (of the inverse of the distribution). */
+        private final double maxPower ;
+
+        /* builds a stream of lookups of the given parameters. */
+        private LookupStream(long numOfKeys, double hitRatio, double zipfExponent) {
+            if (( numOfKeys <= 0 ) || ( hitRatio < 0 ) || ( hitRatio > 1 ) || ( zipfExponent < 0 )) {
+                throw new IllegalArgumentException("Invalid parameters of a lookup stream.") ;
+            }
+            this.numOfKeys = numOfKeys ;
+            this.hitRatio = hitRatio ;
+            this.zipfExponent = zipfExponent ;
+            this.maxPower = Math.pow(numOfKeys, 1 - zipfExponent) ;
+        }
+
+        /**
+         * @return the next lookup: a key with the probability of the hit ratio, else a missing key.
+         */
+        public String next() {
+            long index = nextIndex() ;
+            return ( random.nextDouble() < hitRatio ) ? key(index) : missingKey(index) ;
+        }
+
+        /* returns the index of the next lookup, by the (continuous approximation of the) Zipf distribution,
+         * or uniformly if the exponent is 0. */
+        private long nextIndex() {
+            if ( zipfExponent == 0 ) {
+                return random.nextLong(numOfKeys) ;
+            }
+            double u = random.nextDouble() ;
+            double rank ;
+            if ( Math.abs(zipfExponent - 1) < 1e-9 ) {
+                rank = Math.pow(numOfKeys, u) ;
+            }
+            else {
+                rank = Math.pow(( maxPower - 1 ) * u + 1, 1 / ( 1 - zipfExponent )) ;
+            }
+            return Math.min(numOfKeys - 1, Math.max(0, (long) rank - 1)) ;
+        }
+    }
+}
\ No newline at end of file